@@ -1,27 +1,41 @@
 package com.smartparking.Smartparking.controller.notification;
 
-import com.smartparking.Smartparking.entity.iam.User;
+import com.smartparking.Smartparking.dto.request.notification.BroadcastRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.BroadcastJobResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationCacheStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationInboxPageResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLaneStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLogStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationMetricsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationStreamStatsResponse;
 import com.smartparking.Smartparking.entity.notification.Notification;
 import com.smartparking.Smartparking.entity.notification.NotificationPreference;
 import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
+import com.smartparking.Smartparking.repository.UserRepository;
 import com.smartparking.Smartparking.repository.notification.NotificationPreferenceRepository;
 import com.smartparking.Smartparking.repository.notification.NotificationRepository;
 import com.smartparking.Smartparking.repository.notification.UserDeviceTokenRepository;
+import com.smartparking.Smartparking.service.notification.NotificationBroadcastService;
+import com.smartparking.Smartparking.service.notification.NotificationInboxService;
 import com.smartparking.Smartparking.service.notification.NotificationService;
+import com.smartparking.Smartparking.service.notification.NotificationStreamService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/notifications")
@@ -33,27 +47,30 @@ public class NotificationController {
     private final NotificationRepository notificationRepository;
     private final UserDeviceTokenRepository tokenRepository;
     private final NotificationService notificationService;
+    private final UserRepository userRepository;
+    private final NotificationBroadcastService broadcastService;
+    private final NotificationInboxService inboxService;
+    private final NotificationStreamService streamService;
 
     @GetMapping("/preferences")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<NotificationPreference>> getPreferences(
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(preferenceRepository.findByUser_UserId(user.getUserId()));
+    public ResponseEntity<List<NotificationPreference>> getPreferences() {
+        return ResponseEntity.ok(preferenceRepository.findByUser_UserId(getCurrentUserId()));
     }
 
     @PutMapping("/preferences")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<NotificationPreference>> updatePreferences(
-            @AuthenticationPrincipal User user,
             @RequestBody List<NotificationPreference> updates) {
 
+        String userId = getCurrentUserId();
         List<NotificationPreference> saved = updates.stream()
                 .map(update -> {
                     NotificationPreference pref = preferenceRepository
-                            .findByUser_UserIdAndNotificationType(user.getUserId(), update.getNotificationType())
+                            .findByUser_UserIdAndNotificationType(userId, update.getNotificationType())
                             .orElseGet(() -> {
                                 NotificationPreference np = new NotificationPreference();
-                                np.setUser(user);
+                                np.setUser(userRepository.getReferenceById(userId));
                                 np.setNotificationType(update.getNotificationType());
                                 return np;
                             });
@@ -62,28 +79,31 @@ public class NotificationController {
                     pref.setChannel(update.getChannel());
                     pref.setQuietHoursStart(update.getQuietHoursStart());
                     pref.setQuietHoursEnd(update.getQuietHoursEnd());
+                    pref.setDigestEnabled(Boolean.TRUE.equals(update.getDigestEnabled()));
+                    pref.setDigestWindowMinutes(update.getDigestWindowMinutes());
                     pref.setUpdatedAt(LocalDateTime.now());
 
                     return preferenceRepository.save(pref);
                 })
                 .toList();
 
+        notificationService.invalidatePreferences(userId);
         return ResponseEntity.ok(saved);
     }
 
     @PostMapping("/token")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Void> registerToken(
-            @AuthenticationPrincipal User user,
             @RequestBody RegisterTokenRequest request) {
 
+        String userId = getCurrentUserId();
         UserDeviceToken token = tokenRepository
-                .findByUser_UserIdAndToken(user.getUserId(), request.token())
+                .findByUser_UserIdAndToken(userId, request.token())
                 .orElse(new UserDeviceToken());
 
-        token.setUser(user);
+        token.setUser(userRepository.getReferenceById(userId));
         token.setToken(request.token());
-        token.setPlatform(UserDeviceToken.Platform.valueOf(request.platform().toUpperCase()));
+        token.setPlatform(UserDeviceToken.Platform.valueOf(request.platform().toLowerCase()));
         token.setIsActive(true);
         token.setLastUsedAt(LocalDateTime.now());
         tokenRepository.save(token);
@@ -98,56 +118,106 @@ public class NotificationController {
     @GetMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<Notification>> getUserNotifications(
-            @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Notification> pageResult = notificationRepository.findByUser_UserIdOrderByCreatedAtDesc(
-                user.getUserId(), pageable
+                getCurrentUserId(), pageable
         );
 
         return ResponseEntity.ok(pageResult.getContent());
     }
 
+    @GetMapping("/inbox")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<NotificationInboxPageResponse> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(inboxService.getInbox(getCurrentUserId(), cursor, limit));
+    }
+
     @PatchMapping("/{notificationId}/read")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Void> markAsRead(
-            @AuthenticationPrincipal User user,
             @PathVariable String notificationId) {
+        inboxService.markAsRead(getCurrentUserId(), notificationId);
+        return ResponseEntity.noContent().build();
+    }
 
-        Optional<Notification> opt = notificationRepository
-                .findByNotificationIdAndUser_UserId(notificationId, user.getUserId());
+    @PostMapping("/read-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Integer>> markAllAsRead() {
+        return ResponseEntity.ok(Map.of("updated", inboxService.markAllAsRead(getCurrentUserId())));
+    }
 
-        if (opt.isPresent()) {
-            Notification notif = opt.get();
-            notif.setStatus(Notification.Status.delivered);
-            notificationRepository.save(notif);
-            return ResponseEntity.<Void>noContent().build();
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    @GetMapping("/unread-count")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("unread", inboxService.getUnreadCount(getCurrentUserId())));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamNotifications(@RequestParam(required = false) String sessionId) {
+        return streamService.connect(getCurrentUserId(), sessionId);
+    }
+
+    @GetMapping("/stream/stats")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationStreamStatsResponse> getStreamStats() {
+        return ResponseEntity.ok(streamService.getStats());
     }
 
     @PostMapping("/broadcast")
     @PreAuthorize("hasRole('ADMINISTRATOR')")
-    public ResponseEntity<Void> broadcast(
-            @RequestBody BroadcastRequest request) {
+    public ResponseEntity<BroadcastJobResponse> broadcast(
+            @Valid @RequestBody BroadcastRequestDto request) {
+        return ResponseEntity.accepted().body(broadcastService.startBroadcast(request));
+    }
 
-        Map<String, Object> data = request.data() != null ? request.data() : Map.of();
+    @GetMapping("/broadcast")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<BroadcastJobResponse>> getBroadcasts() {
+        return ResponseEntity.ok(broadcastService.getRecentJobs());
+    }
 
-        notificationService.sendToMultipleUsers(
-                request.userIds(),
-                request.type(),
-                data
-        );
+    @GetMapping("/broadcast/{jobId}")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<BroadcastJobResponse> getBroadcast(@PathVariable String jobId) {
+        return ResponseEntity.ok(broadcastService.getJob(jobId));
+    }
 
-        return ResponseEntity.ok().build();
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(notificationService.getCacheStats());
+    }
+
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationMetricsResponse> getMetrics() {
+        return ResponseEntity.ok(notificationService.getMetrics());
     }
 
-    record BroadcastRequest(
-            List<String> userIds,
-            NotificationPreference.NotificationType type,
-            Map<String, Object> data
-    ) {}
+    @GetMapping("/logs/stats")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationLogStatsResponse> getLogStats() {
+        return ResponseEntity.ok(notificationService.getLogStats());
+    }
+
+    @GetMapping("/lanes")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<NotificationLaneStatsResponse>> getLaneStats() {
+        return ResponseEntity.ok(notificationService.getLaneStats());
+    }
+
+    // El filtro JWT deja el userId (String) como principal
+    private String getCurrentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof String userId) {
+            return userId;
+        }
+        throw new IllegalStateException("User not authenticated");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.smartparking.Smartparking.controller.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.NotificationTemplateRequestDto;
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+import com.smartparking.Smartparking.service.notification.NotificationTemplateService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/notifications/templates")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class NotificationTemplateController {
+
+    private final NotificationTemplateService templateService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<NotificationTemplate>> getTemplates() {
+        return ResponseEntity.ok(templateService.getAllTemplates());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationTemplate> createTemplate(@Valid @RequestBody NotificationTemplateRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(templateService.createTemplate(request));
+    }
+
+    @PutMapping("/{templateId}")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<NotificationTemplate> updateTemplate(
+            @PathVariable String templateId,
+            @Valid @RequestBody NotificationTemplateRequestDto request) {
+        return ResponseEntity.ok(templateService.updateTemplate(templateId, request));
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartparking.Smartparking.controller.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.SpaceSubscriptionRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.SpaceSubscriptionResponse;
+import com.smartparking.Smartparking.service.notification.SpaceSubscriptionService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/notifications/space-subscriptions")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class SpaceSubscriptionController {
+
+    private final SpaceSubscriptionService subscriptionService;
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SpaceSubscriptionResponse> subscribe(@Valid @RequestBody SpaceSubscriptionRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(subscriptionService.subscribe(getCurrentUserId(), request));
+    }
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SpaceSubscriptionResponse>> getActiveSubscriptions() {
+        return ResponseEntity.ok(subscriptionService.getActiveSubscriptions(getCurrentUserId()));
+    }
+
+    @DeleteMapping("/{subscriptionId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> cancel(@PathVariable String subscriptionId) {
+        subscriptionService.cancel(getCurrentUserId(), subscriptionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private String getCurrentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof String userId) {
+            return userId;
+        }
+        throw new IllegalStateException("User not authenticated");
+    }
+}
@@ -7,6 +7,7 @@ import com.smartparking.Smartparking.dto.response.reservation.ReservationHistory
 import com.smartparking.Smartparking.dto.response.reservation.ReservationResponse;
 import com.smartparking.Smartparking.entity.reservation.Reservation;
 import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
 import com.smartparking.Smartparking.repository.reservation.ReservationRepository;
 import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
 import com.smartparking.Smartparking.service.reservation.ReservationService;
@@ -15,6 +16,7 @@ import io.jsonwebtoken.Jwt;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -40,6 +42,7 @@ public class ReservationController {
     private final ParkingSpaceService parkingSpaceService;
     private final ParkingSpaceRepository parkingSpaceRepository;
     private final ReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
@@ -163,11 +166,14 @@ public class ReservationController {
 
         // Liberar espacio
         ParkingSpace space = res.getParkingSpace();
+        ParkingSpace.SpaceStatus previousStatus = space.getStatus();
         space.setStatus(ParkingSpace.SpaceStatus.available);
         space.setCurrentReservationId(null);
         parkingSpaceRepository.save(space);
 
-        return reservationRepository.save(res);
+        Reservation saved = reservationRepository.save(res);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
+        return saved;
     }
 
     @PostMapping("/{reservationId}/expire")
@@ -0,0 +1,39 @@
+package com.smartparking.Smartparking.controller.simulator;
+
+import com.smartparking.Smartparking.dto.request.simulator.SimulationRequestDto;
+import com.smartparking.Smartparking.dto.response.simulator.SimulationReportResponse;
+import com.smartparking.Smartparking.service.simulator.IotSimulatorService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/iot/simulator")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "smartparking.simulator.enabled", havingValue = "true")
+public class IotSimulatorController {
+
+    private final IotSimulatorService iotSimulatorService;
+
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<SimulationReportResponse> startSimulation(
+            @Valid @RequestBody SimulationRequestDto request) {
+        return ResponseEntity.status(201).body(iotSimulatorService.start(request));
+    }
+
+    @GetMapping("/runs/current")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<SimulationReportResponse> getReport() {
+        return ResponseEntity.ok(iotSimulatorService.report());
+    }
+
+    @DeleteMapping("/runs/current")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<SimulationReportResponse> stopSimulation() {
+        return ResponseEntity.ok(iotSimulatorService.stop());
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartparking.Smartparking.controller.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.DeviceConnectionResponse;
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandFrameResponse;
+import com.smartparking.Smartparking.service.space_iot.DeviceHeartbeatService;
+import com.smartparking.Smartparking.service.space_iot.LedCommandService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/iot/devices")
+@RequiredArgsConstructor
+public class IotDeviceController {
+
+    private final LedCommandService ledCommandService;
+    private final DeviceHeartbeatService deviceHeartbeatService;
+
+    @PostMapping("/{deviceId}/heartbeat")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> heartbeat(@PathVariable String deviceId) {
+        deviceHeartbeatService.recordHeartbeat(deviceId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/connections")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<DeviceConnectionResponse>> getConnections() {
+        return ResponseEntity.ok(deviceHeartbeatService.getConnections());
+    }
+
+    @GetMapping("/{deviceId}/led-commands")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<LedCommandFrameResponse> getLedCommands(@PathVariable String deviceId) {
+        return ledCommandService.getPendingFrame(deviceId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build()); // 204 si no hay cambios
+    }
+
+    @PostMapping("/{deviceId}/led-commands/{frameId}/ack")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> acknowledgeLedCommands(
+            @PathVariable String deviceId,
+            @PathVariable String frameId) {
+        ledCommandService.acknowledgeFrame(deviceId, frameId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/led-commands/refresh")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<Map<String, Integer>> refreshLedCommands() {
+        return ResponseEntity.accepted().body(Map.of("spaces", ledCommandService.refreshAll()));
+    }
+}
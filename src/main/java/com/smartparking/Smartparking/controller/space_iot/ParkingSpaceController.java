@@ -2,13 +2,18 @@ package com.smartparking.Smartparking.controller.space_iot;
 
 import com.smartparking.Smartparking.dto.request.space_iot.ParkingSpaceRequestDto;
 import com.smartparking.Smartparking.dto.request.space_iot.UpdateParkingSpaceDto;
+import com.smartparking.Smartparking.dto.response.space_iot.LotSummaryResponse;
 import com.smartparking.Smartparking.dto.response.space_iot.ParkingSpaceResponse;
+import com.smartparking.Smartparking.service.space_iot.LotOccupancyService;
+import com.smartparking.Smartparking.service.space_iot.OccupancyStreamService;
 import com.smartparking.Smartparking.service.space_iot.ParkingSpaceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -18,6 +23,8 @@ import java.util.List;
 public class ParkingSpaceController {
 
     private final ParkingSpaceService parkingSpaceService;
+    private final OccupancyStreamService occupancyStreamService;
+    private final LotOccupancyService lotOccupancyService;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -31,6 +38,18 @@ public class ParkingSpaceController {
         return ResponseEntity.ok(parkingSpaceService.getParkingSpacesByStatus(status));
     }
 
+    @GetMapping("/summary")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<LotSummaryResponse> getLotSummary() {
+        return ResponseEntity.ok(lotOccupancyService.getSummary());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamOccupancy() {
+        return occupancyStreamService.subscribe();
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ParkingSpaceResponse> createParkingSpace(
@@ -0,0 +1,35 @@
+package com.smartparking.Smartparking.controller.space_iot;
+
+import com.smartparking.Smartparking.dto.request.space_iot.SensorReadingRequestDto;
+import com.smartparking.Smartparking.dto.response.space_iot.SensorHealthResponse;
+import com.smartparking.Smartparking.service.space_iot.SensorReadingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/iot/sensors")
+@RequiredArgsConstructor
+public class SensorController {
+
+    private final SensorReadingService sensorReadingService;
+
+    @PostMapping("/{sensorId}/readings")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> ingestReading(
+            @PathVariable String sensorId,
+            @Valid @RequestBody SensorReadingRequestDto request) {
+        sensorReadingService.ingest(sensorId, request);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/health")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<SensorHealthResponse>> getSensorHealth() {
+        return ResponseEntity.ok(sensorReadingService.getSensorHealth());
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartparking.Smartparking.dto.request.notification;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastRequestDto {
+
+    // Ignorado si allUsers = true
+    private List<String> userIds;
+
+    private boolean allUsers;
+
+    @NotBlank(message = "El tipo es obligatorio")
+    private String type;
+
+    private Map<String, Object> data;
+
+    // Datos adicionales por usuario (se combinan con data); se renderiza una vez por combinación distinta
+    private Map<String, Map<String, Object>> userData;
+
+    // low/medium/high/urgent; por defecto low para no retrasar alertas individuales
+    private String priority;
+}
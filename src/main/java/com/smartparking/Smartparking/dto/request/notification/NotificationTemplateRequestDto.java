@@ -0,0 +1,30 @@
+package com.smartparking.Smartparking.dto.request.notification;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationTemplateRequestDto {
+
+    @NotBlank(message = "El nombre es obligatorio")
+    @Size(max = 255, message = "El nombre no puede exceder 255 caracteres")
+    private String name;
+
+    @NotBlank(message = "El tipo es obligatorio")
+    private String type;
+
+    @NotBlank(message = "El título es obligatorio")
+    private String titleTemplate;
+
+    @NotBlank(message = "El mensaje es obligatorio")
+    private String messageTemplate;
+
+    private Boolean isActive;
+}
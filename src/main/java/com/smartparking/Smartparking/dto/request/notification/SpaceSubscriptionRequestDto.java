@@ -0,0 +1,30 @@
+package com.smartparking.Smartparking.dto.request.notification;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceSubscriptionRequestDto {
+
+    @Size(max = 20, message = "La zona no puede exceder 20 caracteres")
+    private String zone;
+
+    private Integer level;
+
+    @NotNull(message = "El inicio de la ventana es obligatorio")
+    private LocalDateTime from;
+
+    @NotNull(message = "El fin de la ventana es obligatorio")
+    @Future(message = "El fin de la ventana debe ser futuro")
+    private LocalDateTime to;
+}
@@ -0,0 +1,45 @@
+package com.smartparking.Smartparking.dto.request.simulator;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationRequestDto {
+
+    @Min(value = 1, message = "Debe simular al menos un dispositivo")
+    @Max(value = 9999, message = "Máximo 9999 dispositivos")
+    @Builder.Default
+    private int devices = 10;
+
+    @Min(value = 1, message = "Cada dispositivo debe tener al menos un sensor")
+    @Max(value = 99, message = "Máximo 99 sensores por dispositivo")
+    @Builder.Default
+    private int sensorsPerDevice = 8;
+
+    @Min(value = 1, message = "La tasa mínima es 1 lectura por segundo")
+    @Builder.Default
+    private int readingsPerSecond = 200;
+
+    @Min(value = 1, message = "La duración mínima es 1 segundo")
+    @Builder.Default
+    private int durationSeconds = 60;
+
+    // Tiempo medio de permanencia de un vehículo y de espacio libre
+    @Min(value = 1, message = "La permanencia media mínima es 1 segundo")
+    @Builder.Default
+    private int meanOccupiedSeconds = 30;
+
+    @Min(value = 1, message = "El tiempo libre medio mínimo es 1 segundo")
+    @Builder.Default
+    private int meanVacantSeconds = 30;
+
+    @Builder.Default
+    private double noiseCm = 1.5;
+}
@@ -20,4 +20,10 @@ public class ParkingSpaceRequestDto {
     private String code;
 
     private String status;
+
+    @Size(max = 20, message = "La zona no puede exceder 20 caracteres")
+    @Pattern(regexp = "^[A-Za-z0-9_-]*$", message = "La zona solo puede contener letras, números, guiones y guiones bajos")
+    private String zone;
+
+    private Integer level;
 }
\ No newline at end of file
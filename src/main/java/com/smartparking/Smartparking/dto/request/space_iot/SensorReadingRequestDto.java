@@ -0,0 +1,20 @@
+package com.smartparking.Smartparking.dto.request.space_iot;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorReadingRequestDto {
+
+    @NotNull(message = "La distancia es obligatoria")
+    private Double distanceCm;
+
+    // Si el dispositivo no lo envía se deduce de la distancia
+    private Boolean vehicleDetected;
+}
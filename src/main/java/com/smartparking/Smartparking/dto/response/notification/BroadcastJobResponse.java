@@ -0,0 +1,26 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastJobResponse {
+    private String jobId;
+    private String type;
+    private String status;
+    private int recipients;
+    private int processed;
+    private int created;
+    private int skipped;
+    private int deferred;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
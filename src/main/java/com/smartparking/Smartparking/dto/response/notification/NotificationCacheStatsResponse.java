@@ -0,0 +1,21 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCacheStatsResponse {
+    private long templateHits;
+    private long templateMisses;
+    private int templateEntries;
+    private long preferenceHits;
+    private long preferenceMisses;
+    private long preferenceEvictions;
+    private int preferenceEntries;
+    private int preferenceCapacity;
+}
@@ -0,0 +1,24 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationInboxItemResponse {
+    private String notificationId;
+    private String title;
+    private String message;
+    private String type;
+    private String priority;
+    private String status;
+    private String channel;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,18 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationInboxPageResponse {
+    private List<NotificationInboxItemResponse> items;
+    private String nextCursor; // null si no hay más páginas
+    private boolean hasMore;
+}
@@ -0,0 +1,25 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationLaneStatsResponse {
+    private String priority;
+    private int weight;
+    private int concurrencyLimit;
+    private int inFlight;
+    private long claimed;
+    private long sent;
+    private long failed;
+    private long sloMs;
+    private double sloAttainment;
+    private double avgLatencyMs;
+    private long p95LatencyMs;
+    private long maxLatencyMs;
+}
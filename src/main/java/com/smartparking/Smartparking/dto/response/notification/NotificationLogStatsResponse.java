@@ -0,0 +1,24 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationLogStatsResponse {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long written;
+    private long droppedLowValue;
+    private long droppedOverload;
+    private long failedBatches;
+    private long flushes;
+    private double avgFlushLatencyMs;
+    private long maxFlushLatencyMs;
+    private long lastFlushLatencyMs;
+}
@@ -0,0 +1,18 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMetricCounterResponse {
+    private String type;
+    private String channel;
+    private String outcome;
+    private long total;
+    private long sinceLastFlush;
+}
@@ -0,0 +1,22 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMetricsResponse {
+    private LocalDateTime since;
+    private LocalDateTime lastFlushAt;
+    private Map<String, Long> totalsByOutcome;
+    private double failureRate;
+    private List<NotificationMetricCounterResponse> counters;
+}
@@ -0,0 +1,19 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationStreamStatsResponse {
+    private int connectedUsers;
+    private int sessions;
+    private long deliveredLive;
+    private long inboxFallback;
+    private long dropped;
+    private long disconnects;
+}
@@ -0,0 +1,23 @@
+package com.smartparking.Smartparking.dto.response.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceSubscriptionResponse {
+    private String subscriptionId;
+    private String zone;
+    private Integer level;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime notifiedAt;
+}
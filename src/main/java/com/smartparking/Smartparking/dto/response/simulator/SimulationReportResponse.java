@@ -0,0 +1,25 @@
+package com.smartparking.Smartparking.dto.response.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationReportResponse {
+    private boolean running;
+    private int devices;
+    private int sensors;
+    private long elapsedSeconds;
+    private long readingsSent;
+    private long readingsFailed;
+    private long transitionsEmitted;
+    private long transitionsObserved;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+}
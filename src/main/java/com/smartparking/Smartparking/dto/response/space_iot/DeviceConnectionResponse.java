@@ -0,0 +1,18 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceConnectionResponse {
+    private String deviceId;
+    private boolean connected;
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,20 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedCommandFrameResponse {
+    private String frameId;
+    private String deviceId;
+    private List<LedCommandResponse> commands;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedCommandResponse {
+    private String spaceId;
+    private String code;
+    private String color;
+}
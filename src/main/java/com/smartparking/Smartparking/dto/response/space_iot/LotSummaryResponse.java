@@ -0,0 +1,24 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotSummaryResponse {
+    private long available;
+    private long reserved;
+    private long occupied;
+    private long maintenance;
+    private long total;
+    private List<ZoneOccupancyResponse> levels;
+    private List<ZoneOccupancyResponse> zones;
+    private LocalDateTime lastReconciledAt;
+}
@@ -0,0 +1,21 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyUpdateResponse {
+    private String spaceId;
+    private String code;
+    private String zone;
+    private Integer level;
+    private String status;
+    private LocalDateTime changedAt;
+}
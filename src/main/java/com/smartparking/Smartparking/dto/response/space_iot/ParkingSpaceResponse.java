@@ -14,6 +14,8 @@ import java.time.LocalDateTime;
 public class ParkingSpaceResponse {
     private String spaceId;
     private String code;
+    private String zone;
+    private Integer level;
     private String status;
     private String currentReservationId;
     private LocalDateTime lastUpdated;
@@ -0,0 +1,22 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorHealthResponse {
+    private String sensorId;
+    private String status;
+    private List<String> reasons;
+    private long readings;
+    private double noiseStddevCm;
+    private double outOfRangeRate;
+    private long flatlineSeconds;
+}
@@ -0,0 +1,20 @@
+package com.smartparking.Smartparking.dto.response.space_iot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneOccupancyResponse {
+    private Integer level;
+    private String zone;
+    private long available;
+    private long reserved;
+    private long occupied;
+    private long maintenance;
+    private long total;
+}
@@ -11,7 +11,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, notification_id"),
+        @Index(name = "idx_notifications_user_unread", columnList = "user_id, read_at"),
+        @Index(name = "idx_notifications_expires", columnList = "expires_at"),
+        @Index(name = "idx_notifications_status_created", columnList = "status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,6 +59,9 @@ public class Notification {
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
 
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification_logs")
+@Table(name = "notification_logs", indexes = {
+        @Index(name = "idx_notification_logs_occurred", columnList = "occurred_at"),
+        @Index(name = "idx_notification_logs_notification", columnList = "notification_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
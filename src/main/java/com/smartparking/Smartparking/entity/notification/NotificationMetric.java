@@ -9,7 +9,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification_metrics")
+@Table(name = "notification_metrics", indexes = {
+        @Index(name = "idx_notification_metrics_period", columnList = "time_period, metric_name, recorded_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +41,13 @@ public class NotificationPreference {
     @Column(name = "quiet_hours_end")
     private LocalTime quietHoursEnd;
 
+    // Modo resumen: las notificaciones de baja prioridad se agrupan en un solo mensaje por ventana
+    @Column(name = "digest_enabled")
+    private Boolean digestEnabled = false;
+
+    @Column(name = "digest_window_minutes")
+    private Integer digestWindowMinutes;
+
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
@@ -8,7 +8,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification_queue")
+@Table(name = "notification_queue", indexes = {
+        @Index(name = "idx_notification_queue_status_scheduled", columnList = "status, scheduled_at"),
+        @Index(name = "idx_notification_queue_lane", columnList = "priority, status, scheduled_at"),
+        @Index(name = "idx_notification_queue_status_processed", columnList = "status, processed_at"),
+        @Index(name = "idx_notification_queue_notification", columnList = "notification_id"),
+        @Index(name = "idx_notification_queue_deferred", columnList = "deferred, scheduled_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,6 +43,10 @@ public class NotificationQueue {
     @Column(name = "retry_count")
     private Integer retryCount = 0;
 
+    // Diferida por horario silencioso: el dispatcher la ignora hasta que el releaser la libere
+    @Column(name = "deferred")
+    private Boolean deferred = false;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
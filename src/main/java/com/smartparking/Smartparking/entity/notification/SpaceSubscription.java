@@ -0,0 +1,58 @@
+package com.smartparking.Smartparking.entity.notification;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// "Avísame cuando se libere un espacio en la zona X entre T1 y T2"
+@Entity
+@Table(name = "space_subscriptions", indexes = {
+        @Index(name = "idx_space_subscriptions_status_end", columnList = "status, window_end"),
+        @Index(name = "idx_space_subscriptions_user", columnList = "user_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "subscription_id", length = 36, nullable = false)
+    private String subscriptionId;
+
+    @Column(name = "user_id", length = 36, nullable = false)
+    private String userId;
+
+    // null = cualquier zona / cualquier nivel
+    @Column(name = "zone", length = 20)
+    private String zone;
+
+    @Column(name = "level")
+    private Integer level;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private Status status = Status.active;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "notified_at")
+    private LocalDateTime notifiedAt;
+
+    @Column(name = "notified_space_id", length = 36)
+    private String notifiedSpaceId;
+
+    public enum Status {
+        active, notified, cancelled, expired
+    }
+}
@@ -9,7 +9,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_device_tokens")
+@Table(name = "user_device_tokens", indexes = {
+        @Index(name = "idx_user_device_tokens_user_active", columnList = "user_id, is_active"),
+        @Index(name = "idx_user_device_tokens_token", columnList = "token")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
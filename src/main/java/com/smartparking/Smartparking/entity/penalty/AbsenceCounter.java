@@ -9,12 +9,16 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "absence_counters")
+@Table(name = "absence_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_absence_counters_user", columnNames = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AbsenceCounter {
 
+    public static final int DEFAULT_MAX_STRIKES = 3;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "counter_id", length = 36, nullable = false)
@@ -30,7 +34,7 @@ public class AbsenceCounter {
     private Integer strikeCount = 0;
 
     @Column(name = "max_strikes")
-    private Integer maxStrikes = 3;
+    private Integer maxStrikes = DEFAULT_MAX_STRIKES;
 
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
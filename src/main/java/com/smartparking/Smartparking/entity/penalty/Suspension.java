@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "suspensions")
+@Table(name = "suspensions", indexes = {
+        @Index(name = "idx_suspensions_status_start", columnList = "status, start_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,7 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "parking_spaces")
+@Table(name = "parking_spaces", indexes = {
+        @Index(name = "idx_parking_spaces_zone_status", columnList = "level, zone, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +27,12 @@ public class ParkingSpace {
     @Column(name = "code", length = 10, nullable = false, unique = true)
     private String code;
 
+    @Column(name = "zone", length = 20)
+    private String zone;
+
+    @Column(name = "level")
+    private Integer level;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", length = 20, nullable = false)
     private SpaceStatus status = SpaceStatus.available;
@@ -0,0 +1,21 @@
+package com.smartparking.Smartparking.event.penalty;
+
+import com.smartparking.Smartparking.entity.penalty.Suspension;
+
+import java.time.LocalDateTime;
+
+// Se publica al crear o cerrar una Suspension para mantener el registro en memoria al día
+public record SuspensionChangedEvent(
+        String userId,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Suspension.Status status
+) {
+    public static SuspensionChangedEvent of(Suspension suspension) {
+        return new SuspensionChangedEvent(
+                suspension.getUserId(),
+                suspension.getStartDate(),
+                suspension.getEndDate(),
+                suspension.getStatus());
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartparking.Smartparking.event.space_iot;
+
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+
+// Se publica al crear o reasignar un Sensor para que los comandos LED lleguen a su IotDevice
+public record SensorAssignedEvent(
+        String sensorId,
+        String spaceId,
+        String deviceId
+) {
+    public static SensorAssignedEvent of(Sensor sensor) {
+        return new SensorAssignedEvent(
+                sensor.getSensorId(),
+                sensor.getParkingSpace().getSpaceId(),
+                sensor.getIotDevice() != null ? sensor.getIotDevice().getDeviceId() : null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartparking.Smartparking.event.space_iot;
+
+import com.smartparking.Smartparking.entity.reservation.Reservation;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+
+import java.time.LocalDateTime;
+
+// Se publica cada vez que un ParkingSpace cambia de estado (reservas, admin, sensores)
+public record SpaceStatusChangedEvent(
+        String spaceId,
+        String code,
+        String zone,
+        Integer level,
+        String previousZone,
+        Integer previousLevel,
+        ParkingSpace.SpaceStatus previousStatus,
+        ParkingSpace.SpaceStatus status,
+        String reservationId,
+        Reservation.ReservationStatus reservationStatus,
+        LocalDateTime occurredAt
+) {
+    public static SpaceStatusChangedEvent of(ParkingSpace space, ParkingSpace.SpaceStatus previousStatus) {
+        return of(space, previousStatus, null);
+    }
+
+    public static SpaceStatusChangedEvent of(ParkingSpace space, ParkingSpace.SpaceStatus previousStatus,
+                                             Reservation reservation) {
+        return new SpaceStatusChangedEvent(
+                space.getSpaceId(),
+                space.getCode(),
+                space.getZone(),
+                space.getLevel(),
+                space.getZone(),
+                space.getLevel(),
+                previousStatus,
+                space.getStatus(),
+                reservation != null ? reservation.getReservationId() : null,
+                reservation != null ? reservation.getStatus() : null,
+                LocalDateTime.now()
+        );
+    }
+
+    // Cambio de zona/nivel desde administración (puede venir sin cambio de estado)
+    public static SpaceStatusChangedEvent moved(ParkingSpace space, ParkingSpace.SpaceStatus previousStatus,
+                                                String previousZone, Integer previousLevel) {
+        return new SpaceStatusChangedEvent(
+                space.getSpaceId(),
+                space.getCode(),
+                space.getZone(),
+                space.getLevel(),
+                previousZone,
+                previousLevel,
+                previousStatus,
+                space.getStatus(),
+                null,
+                null,
+                LocalDateTime.now()
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class NotificationBulkRepository {
+
+    // Preferencias habilitadas de todo el conjunto de destinatarios en una consulta
+    private static final String ENABLED_PREFERENCES_FOR_USERS = """
+            SELECT p.user_id, p.channel, p.quiet_hours_start, p.quiet_hours_end
+            FROM notification_preferences p
+            WHERE p.notification_type = ? AND p.is_enabled = true AND p.user_id = ANY(?::varchar[])
+            """;
+
+    private static final String ENABLED_PREFERENCES_FOR_ACTIVE_USERS = """
+            SELECT p.user_id, p.channel, p.quiet_hours_start, p.quiet_hours_end
+            FROM notification_preferences p
+            JOIN users u ON u.user_id = p.user_id
+            WHERE p.notification_type = ? AND p.is_enabled = true AND u.status = 'active'
+            """;
+
+    private static final String INSERT_NOTIFICATIONS = """
+            INSERT INTO notifications (notification_id, user_id, title, message, type, priority, status,
+                                       channel, created_at, expires_at, metadata, retry_count)
+            SELECT v.notification_id, v.user_id, v.title, v.message, v.type, v.priority, 'pending',
+                   v.channel, v.created_at, v.expires_at, v.metadata::json, 0
+            FROM unnest(?::varchar[], ?::varchar[], ?::text[], ?::text[], ?::varchar[], ?::varchar[],
+                        ?::varchar[], ?::timestamp[], ?::timestamp[], ?::text[])
+                 AS v(notification_id, user_id, title, message, type, priority, channel, created_at, expires_at, metadata)
+            """;
+
+    // Programada a futuro = diferida por horario silencioso
+    private static final String INSERT_QUEUE = """
+            INSERT INTO notification_queue (queue_id, notification_id, priority, scheduled_at, status,
+                                            retry_count, deferred, created_at)
+            SELECT gen_random_uuid()::varchar, v.notification_id, v.priority, v.scheduled_at, 'pending', 0,
+                   v.scheduled_at > v.created_at, v.created_at
+            FROM unnest(?::varchar[], ?::varchar[], ?::timestamp[], ?::timestamp[])
+                 AS v(notification_id, priority, scheduled_at, created_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record EnabledPreference(String userId, String channel, LocalTime quietHoursStart, LocalTime quietHoursEnd) {}
+
+    public record NewNotification(
+            String notificationId,
+            String userId,
+            String title,
+            String message,
+            Notification.Type type,
+            Notification.Channel channel,
+            Notification.Priority priority,
+            String metadata,
+            LocalDateTime createdAt,
+            LocalDateTime scheduledAt,
+            LocalDateTime expiresAt
+    ) {}
+
+    public List<EnabledPreference> findEnabledPreferences(String notificationType, List<String> userIds) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ENABLED_PREFERENCES_FOR_USERS);
+            ps.setString(1, notificationType);
+            ps.setArray(2, con.createArrayOf("varchar", userIds.toArray()));
+            return ps;
+        }, (rs, i) -> new EnabledPreference(
+                rs.getString("user_id"),
+                rs.getString("channel"),
+                rs.getObject("quiet_hours_start", LocalTime.class),
+                rs.getObject("quiet_hours_end", LocalTime.class)));
+    }
+
+    public List<EnabledPreference> findEnabledPreferencesForActiveUsers(String notificationType) {
+        return jdbcTemplate.query(ENABLED_PREFERENCES_FOR_ACTIVE_USERS, (rs, i) -> new EnabledPreference(
+                rs.getString("user_id"),
+                rs.getString("channel"),
+                rs.getObject("quiet_hours_start", LocalTime.class),
+                rs.getObject("quiet_hours_end", LocalTime.class)), notificationType);
+    }
+
+    // Dos sentencias por lote (notificaciones + cola), sin importar el tamaño del lote
+    public void insertBatch(List<NewNotification> batch) {
+        if (batch.isEmpty()) return;
+
+        int size = batch.size();
+        List<String> ids = new ArrayList<>(size);
+        List<String> users = new ArrayList<>(size);
+        List<String> titles = new ArrayList<>(size);
+        List<String> messages = new ArrayList<>(size);
+        List<String> types = new ArrayList<>(size);
+        List<String> priorities = new ArrayList<>(size);
+        List<String> channels = new ArrayList<>(size);
+        List<Timestamp> created = new ArrayList<>(size);
+        List<Timestamp> scheduled = new ArrayList<>(size);
+        List<Timestamp> expires = new ArrayList<>(size);
+        List<String> metadata = new ArrayList<>(size);
+
+        for (NewNotification n : batch) {
+            ids.add(n.notificationId());
+            users.add(n.userId());
+            titles.add(n.title());
+            messages.add(n.message());
+            types.add(n.type().name());
+            priorities.add(n.priority().name());
+            channels.add(n.channel().name());
+            created.add(Timestamp.valueOf(n.createdAt()));
+            scheduled.add(Timestamp.valueOf(n.scheduledAt()));
+            expires.add(n.expiresAt() != null ? Timestamp.valueOf(n.expiresAt()) : null);
+            metadata.add(n.metadata());
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_NOTIFICATIONS);
+            ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", users.toArray()));
+            ps.setArray(3, con.createArrayOf("text", titles.toArray()));
+            ps.setArray(4, con.createArrayOf("text", messages.toArray()));
+            ps.setArray(5, con.createArrayOf("varchar", types.toArray()));
+            ps.setArray(6, con.createArrayOf("varchar", priorities.toArray()));
+            ps.setArray(7, con.createArrayOf("varchar", channels.toArray()));
+            ps.setArray(8, con.createArrayOf("timestamp", created.toArray()));
+            ps.setArray(9, con.createArrayOf("timestamp", expires.toArray()));
+            ps.setArray(10, con.createArrayOf("text", metadata.toArray()));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_QUEUE);
+            ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", priorities.toArray()));
+            ps.setArray(3, con.createArrayOf("timestamp", scheduled.toArray()));
+            ps.setArray(4, con.createArrayOf("timestamp", created.toArray()));
+            return ps;
+        });
+    }
+}
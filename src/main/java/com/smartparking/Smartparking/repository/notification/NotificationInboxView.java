@@ -0,0 +1,26 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+
+import java.time.LocalDateTime;
+
+// Proyección de la bandeja: solo columnas de notifications, sin asociaciones
+public interface NotificationInboxView {
+    String getNotificationId();
+
+    String getTitle();
+
+    String getMessage();
+
+    Notification.Type getType();
+
+    Notification.Priority getPriority();
+
+    Notification.Status getStatus();
+
+    Notification.Channel getChannel();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getSentAt();
+}
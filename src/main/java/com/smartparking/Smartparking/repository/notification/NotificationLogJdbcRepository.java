@@ -0,0 +1,58 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class NotificationLogJdbcRepository {
+
+    // El JOIN descarta eventos de notificaciones ya purgadas sin hacer fallar todo el lote
+    private static final String INSERT_LOGS = """
+            INSERT INTO notification_logs (log_id, notification_id, event_type, event_data, occurred_at, user_id)
+            SELECT gen_random_uuid()::varchar, v.notification_id, v.event_type, v.event_data::json, v.occurred_at, v.user_id
+            FROM unnest(?::varchar[], ?::varchar[], ?::text[], ?::timestamp[], ?::varchar[])
+                 AS v(notification_id, event_type, event_data, occurred_at, user_id)
+            JOIN notifications n ON n.notification_id = v.notification_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record LogEvent(String notificationId, String userId, NotificationLog.EventType eventType,
+                           String eventData, LocalDateTime occurredAt) {}
+
+    public int insertBatch(List<LogEvent> events) {
+        if (events.isEmpty()) return 0;
+
+        List<String> ids = new ArrayList<>(events.size());
+        List<String> types = new ArrayList<>(events.size());
+        List<String> data = new ArrayList<>(events.size());
+        List<Timestamp> occurred = new ArrayList<>(events.size());
+        List<String> users = new ArrayList<>(events.size());
+        for (LogEvent event : events) {
+            ids.add(event.notificationId());
+            types.add(event.eventType().name());
+            data.add(event.eventData());
+            occurred.add(Timestamp.valueOf(event.occurredAt()));
+            users.add(event.userId());
+        }
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_LOGS);
+            ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", types.toArray()));
+            ps.setArray(3, con.createArrayOf("text", data.toArray()));
+            ps.setArray(4, con.createArrayOf("timestamp", occurred.toArray()));
+            ps.setArray(5, con.createArrayOf("varchar", users.toArray()));
+            return ps;
+        });
+    }
+}
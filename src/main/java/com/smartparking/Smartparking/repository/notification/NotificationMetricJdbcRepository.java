@@ -0,0 +1,57 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationMetric;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class NotificationMetricJdbcRepository {
+
+    private static final String INSERT_METRICS = """
+            INSERT INTO notification_metrics (metric_id, metric_name, metric_value, metric_type, time_period, recorded_at)
+            SELECT gen_random_uuid()::varchar, v.metric_name, v.metric_value, v.metric_type, v.time_period, v.recorded_at
+            FROM unnest(?::varchar[], ?::numeric[], ?::varchar[], ?::varchar[], ?::timestamp[])
+                 AS v(metric_name, metric_value, metric_type, time_period, recorded_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record MetricRow(String name, long value, String type, NotificationMetric.TimePeriod period, LocalDateTime recordedAt) {}
+
+    // Todas las filas de un flush (minuto, hora y día) en una sola sentencia
+    public void insertBatch(List<MetricRow> rows) {
+        if (rows.isEmpty()) return;
+
+        List<String> names = new ArrayList<>(rows.size());
+        List<BigDecimal> values = new ArrayList<>(rows.size());
+        List<String> types = new ArrayList<>(rows.size());
+        List<String> periods = new ArrayList<>(rows.size());
+        List<Timestamp> recorded = new ArrayList<>(rows.size());
+        for (MetricRow row : rows) {
+            names.add(row.name());
+            values.add(BigDecimal.valueOf(row.value()));
+            types.add(row.type());
+            periods.add(row.period().name());
+            recorded.add(Timestamp.valueOf(row.recordedAt()));
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_METRICS);
+            ps.setArray(1, con.createArrayOf("varchar", names.toArray()));
+            ps.setArray(2, con.createArrayOf("numeric", values.toArray()));
+            ps.setArray(3, con.createArrayOf("varchar", types.toArray()));
+            ps.setArray(4, con.createArrayOf("varchar", periods.toArray()));
+            ps.setArray(5, con.createArrayOf("timestamp", recorded.toArray()));
+            return ps;
+        });
+    }
+}
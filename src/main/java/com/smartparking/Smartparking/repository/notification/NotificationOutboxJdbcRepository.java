@@ -0,0 +1,73 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class NotificationOutboxJdbcRepository {
+
+    // Mismo esquema que notification_queue: SKIP LOCKED + lease sobre claimed_at
+    private static final String CLAIM = """
+            WITH claimed AS (
+                SELECT outbox_id FROM notification_outbox
+                WHERE (status = 'pending' AND available_at <= ?)
+                   OR (status = 'processing' AND claimed_at < ?)
+                ORDER BY created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE notification_outbox o
+            SET status = 'processing', claimed_at = ?
+            FROM claimed c
+            WHERE o.outbox_id = c.outbox_id
+            RETURNING o.outbox_id, o.user_id, o.notification_type, o.payload, o.attempts, o.created_at
+            """;
+
+    private static final String DELETE = "DELETE FROM notification_outbox WHERE outbox_id = ?";
+
+    private static final String RETRY = """
+            UPDATE notification_outbox
+            SET status = CASE WHEN attempts + 1 >= ? THEN 'failed' ELSE 'pending' END,
+                attempts = attempts + 1, available_at = ?, error_message = ?
+            WHERE outbox_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OutboxEntry(
+            String outboxId,
+            String userId,
+            NotificationPreference.NotificationType type,
+            String payload,
+            int attempts,
+            LocalDateTime createdAt
+    ) {}
+
+    public List<OutboxEntry> claimBatch(int batchSize, LocalDateTime now, LocalDateTime leaseExpiredBefore) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+        return jdbcTemplate.query(CLAIM, (rs, i) -> new OutboxEntry(
+                        rs.getString("outbox_id"),
+                        rs.getString("user_id"),
+                        NotificationPreference.NotificationType.valueOf(rs.getString("notification_type")),
+                        rs.getString("payload"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                nowTs, Timestamp.valueOf(leaseExpiredBefore), batchSize, nowTs);
+    }
+
+    // Se ejecuta dentro de la transacción que encola la notificación: procesado exactamente una vez
+    public void delete(String outboxId) {
+        jdbcTemplate.update(DELETE, outboxId);
+    }
+
+    public void scheduleRetry(String outboxId, int maxAttempts, LocalDateTime availableAt, String error) {
+        jdbcTemplate.update(RETRY, maxAttempts, Timestamp.valueOf(availableAt), error, outboxId);
+    }
+}
@@ -0,0 +1,187 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationQueue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class NotificationQueueJdbcRepository {
+
+    // Reclama un lote de un carril (prioridad) en una sola sentencia: SKIP LOCKED permite que varios nodos
+    // compartan la cola. Las filas en 'processing' cuyo lease (processed_at) venció se consideran abandonadas
+    // y su reclamo cuenta como un intento más (q.status en SET es el valor previo a la actualización).
+    private static final String CLAIM = """
+            WITH claimed AS (
+                SELECT queue_id FROM notification_queue
+                WHERE priority = ?
+                  AND ((status = 'pending' AND (scheduled_at IS NULL OR scheduled_at <= ?) AND deferred IS NOT TRUE)
+                       OR (status = 'processing' AND processed_at < ?))
+                ORDER BY scheduled_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE notification_queue q
+            SET status = 'processing', processed_at = ?,
+                retry_count = COALESCE(q.retry_count, 0) + CASE WHEN q.status = 'processing' THEN 1 ELSE 0 END
+            FROM claimed c, notifications n
+            WHERE q.queue_id = c.queue_id AND n.notification_id = q.notification_id
+            RETURNING q.queue_id, q.notification_id, q.retry_count, n.user_id,
+                      n.title, n.message, n.type, n.channel, q.priority, q.scheduled_at, n.created_at
+            """;
+
+    // Libera las diferidas ya vencidas, las más antiguas primero
+    private static final String RELEASE_DEFERRED = """
+            UPDATE notification_queue
+            SET deferred = false
+            WHERE queue_id IN (
+                SELECT queue_id FROM notification_queue
+                WHERE deferred = true AND status = 'pending' AND scheduled_at <= ?
+                ORDER BY scheduled_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            """;
+
+    // Los resultados solo aplican a filas aún en 'processing': la retención pudo cancelarlas (expiradas) mientras
+    // se enviaban, y esa decisión no debe revertirse
+    private static final String COMPLETE_QUEUE = """
+            UPDATE notification_queue
+            SET status = 'completed', processed_at = ?, error_message = NULL
+            WHERE queue_id = ANY(?::varchar[]) AND status = 'processing'
+            """;
+
+    private static final String COMPLETE_NOTIFICATIONS = """
+            UPDATE notifications
+            SET status = 'sent', sent_at = ?
+            WHERE notification_id = ANY(?::varchar[]) AND status <> 'expired'
+            """;
+
+    // Reintentos: cada fila con su propio retry_count, scheduled_at (backoff) y error
+    private static final String RESCHEDULE_QUEUE = """
+            UPDATE notification_queue q
+            SET status = 'pending', retry_count = v.retry_count, scheduled_at = v.scheduled_at,
+                error_message = v.error_message, processed_at = ?
+            FROM unnest(?::varchar[], ?::int[], ?::timestamp[], ?::text[])
+                 AS v(queue_id, retry_count, scheduled_at, error_message)
+            WHERE q.queue_id = v.queue_id AND q.status = 'processing'
+            """;
+
+    private static final String FAIL_QUEUE = """
+            UPDATE notification_queue q
+            SET status = 'failed', retry_count = v.retry_count, error_message = v.error_message, processed_at = ?
+            FROM unnest(?::varchar[], ?::int[], ?::text[]) AS v(queue_id, retry_count, error_message)
+            WHERE q.queue_id = v.queue_id AND q.status = 'processing'
+            """;
+
+    private static final String FAIL_NOTIFICATIONS = """
+            UPDATE notifications n
+            SET status = 'failed', retry_count = v.retry_count, error_message = v.error_message
+            FROM unnest(?::varchar[], ?::int[], ?::text[]) AS v(notification_id, retry_count, error_message)
+            WHERE n.notification_id = v.notification_id AND n.status <> 'expired'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ClaimedNotification(
+            String queueId,
+            String notificationId,
+            int retryCount,
+            String userId,
+            String title,
+            String message,
+            Notification.Type type,
+            Notification.Channel channel,
+            NotificationQueue.Priority priority,
+            LocalDateTime scheduledAt,
+            LocalDateTime createdAt
+    ) {}
+
+    public List<ClaimedNotification> claimBatch(NotificationQueue.Priority priority, int batchSize,
+                                                LocalDateTime now, LocalDateTime leaseExpiredBefore) {
+        if (batchSize <= 0) return List.of();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        return jdbcTemplate.query(CLAIM, (rs, i) -> new ClaimedNotification(
+                        rs.getString("queue_id"),
+                        rs.getString("notification_id"),
+                        rs.getInt("retry_count"),
+                        rs.getString("user_id"),
+                        rs.getString("title"),
+                        rs.getString("message"),
+                        Notification.Type.valueOf(rs.getString("type")),
+                        Notification.Channel.valueOf(rs.getString("channel")),
+                        NotificationQueue.Priority.valueOf(rs.getString("priority")),
+                        toLocalDateTime(rs.getTimestamp("scheduled_at")),
+                        toLocalDateTime(rs.getTimestamp("created_at"))),
+                priority.name(), nowTs, Timestamp.valueOf(leaseExpiredBefore), batchSize, nowTs);
+    }
+
+    public int releaseDeferred(LocalDateTime now, int limit) {
+        return jdbcTemplate.update(RELEASE_DEFERRED, Timestamp.valueOf(now), limit);
+    }
+
+    public void markCompleted(List<String> queueIds, List<String> notificationIds, LocalDateTime now) {
+        if (queueIds.isEmpty()) return;
+
+        Timestamp nowTs = Timestamp.valueOf(now);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(COMPLETE_QUEUE);
+            ps.setTimestamp(1, nowTs);
+            ps.setArray(2, con.createArrayOf("varchar", queueIds.toArray()));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(COMPLETE_NOTIFICATIONS);
+            ps.setTimestamp(1, nowTs);
+            ps.setArray(2, con.createArrayOf("varchar", notificationIds.toArray()));
+            return ps;
+        });
+    }
+
+    public void reschedule(List<String> queueIds, List<Integer> retryCounts, List<Timestamp> scheduledAt,
+                           List<String> errors, LocalDateTime now) {
+        if (queueIds.isEmpty()) return;
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RESCHEDULE_QUEUE);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setArray(2, con.createArrayOf("varchar", queueIds.toArray()));
+            ps.setArray(3, con.createArrayOf("int4", retryCounts.toArray()));
+            ps.setArray(4, con.createArrayOf("timestamp", scheduledAt.toArray()));
+            ps.setArray(5, con.createArrayOf("text", errors.toArray()));
+            return ps;
+        });
+    }
+
+    public void markFailed(List<String> queueIds, List<String> notificationIds, List<Integer> retryCounts,
+                           List<String> errors, LocalDateTime now) {
+        if (queueIds.isEmpty()) return;
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(FAIL_QUEUE);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setArray(2, con.createArrayOf("varchar", queueIds.toArray()));
+            ps.setArray(3, con.createArrayOf("int4", retryCounts.toArray()));
+            ps.setArray(4, con.createArrayOf("text", errors.toArray()));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(FAIL_NOTIFICATIONS);
+            ps.setArray(1, con.createArrayOf("varchar", notificationIds.toArray()));
+            ps.setArray(2, con.createArrayOf("int4", retryCounts.toArray()));
+            ps.setArray(3, con.createArrayOf("text", errors.toArray()));
+            return ps;
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
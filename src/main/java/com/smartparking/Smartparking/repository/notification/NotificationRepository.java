@@ -1,10 +1,16 @@
 package com.smartparking.Smartparking.repository.notification;
 
 import com.smartparking.Smartparking.entity.notification.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, String> {
@@ -12,4 +18,69 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     Page<Notification> findByUser_UserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
 
     Optional<Notification> findByNotificationIdAndUser_UserId(String notificationId, String userId);
-}
\ No newline at end of file
+
+    // Keyset sobre (createdAt, notificationId) usando idx_notifications_user_created; sin joins
+    @Query("""
+        SELECT n.notificationId AS notificationId, n.title AS title, n.message AS message, n.type AS type,
+               n.priority AS priority, n.status AS status, n.channel AS channel,
+               n.createdAt AS createdAt, n.sentAt AS sentAt
+        FROM Notification n
+        WHERE n.user.userId = :userId
+        ORDER BY n.createdAt DESC, n.notificationId DESC
+        """)
+    List<NotificationInboxView> findInboxFirstPage(@Param("userId") String userId, Limit limit);
+
+    @Query("""
+        SELECT n.notificationId AS notificationId, n.title AS title, n.message AS message, n.type AS type,
+               n.priority AS priority, n.status AS status, n.channel AS channel,
+               n.createdAt AS createdAt, n.sentAt AS sentAt
+        FROM Notification n
+        WHERE n.user.userId = :userId
+          AND (n.createdAt, n.notificationId) < (:createdAt, :notificationId)
+        ORDER BY n.createdAt DESC, n.notificationId DESC
+        """)
+    List<NotificationInboxView> findInboxPageBefore(
+            @Param("userId") String userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("notificationId") String notificationId,
+            Limit limit);
+
+    long countByUser_UserIdAndReadAtIsNullAndStatusNot(String userId, Notification.Status status);
+
+    boolean existsByNotificationIdAndUser_UserId(String notificationId, String userId);
+
+    // Leída = read_at no nulo; las ya enviadas pasan a delivered
+    @Modifying
+    @Query("""
+        UPDATE Notification n
+        SET n.readAt = :now,
+            n.status = CASE WHEN n.status = com.smartparking.Smartparking.entity.notification.Notification.Status.sent
+                            THEN com.smartparking.Smartparking.entity.notification.Notification.Status.delivered
+                            ELSE n.status END
+        WHERE n.notificationId = :notificationId AND n.user.userId = :userId AND n.readAt IS NULL
+        """)
+    int markRead(@Param("notificationId") String notificationId,
+                 @Param("userId") String userId,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        UPDATE Notification n
+        SET n.readAt = :now,
+            n.status = CASE WHEN n.status = com.smartparking.Smartparking.entity.notification.Notification.Status.sent
+                            THEN com.smartparking.Smartparking.entity.notification.Notification.Status.delivered
+                            ELSE n.status END
+        WHERE n.user.userId = :userId AND n.readAt IS NULL
+        """)
+    int markAllRead(@Param("userId") String userId, @Param("now") LocalDateTime now);
+
+    // Notificaciones marcadas como leídas antes de existir read_at
+    @Modifying
+    @Query("""
+        UPDATE Notification n
+        SET n.readAt = COALESCE(n.sentAt, n.createdAt)
+        WHERE n.status = com.smartparking.Smartparking.entity.notification.Notification.Status.delivered
+          AND n.readAt IS NULL
+        """)
+    int backfillReadAt();
+}
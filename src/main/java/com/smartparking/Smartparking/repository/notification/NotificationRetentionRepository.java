@@ -0,0 +1,120 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sentencias de mantenimiento por lotes pequeños y ordenados por índice
+@Repository
+@RequiredArgsConstructor
+public class NotificationRetentionRepository {
+
+    private static final String EXPIRE_NOTIFICATIONS = """
+            UPDATE notifications n
+            SET status = 'expired'
+            WHERE n.notification_id IN (
+                SELECT notification_id FROM notifications
+                WHERE expires_at < ? AND status IN ('pending', 'sent')
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING n.notification_id
+            """;
+
+    // Lo que aún no salió de la cola ya no debe enviarse
+    private static final String CANCEL_QUEUE = """
+            UPDATE notification_queue
+            SET status = 'failed', error_message = 'Notificación expirada', processed_at = ?
+            WHERE notification_id = ANY(?::varchar[]) AND status IN ('pending', 'processing')
+            """;
+
+    private static final String SELECT_PURGEABLE = """
+            SELECT notification_id FROM notifications
+            WHERE status IN ('delivered', 'expired', 'failed') AND created_at < ?
+            ORDER BY status, created_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String DELETE_QUEUE_OF = "DELETE FROM notification_queue WHERE notification_id = ANY(?::varchar[])";
+    private static final String DELETE_LOGS_OF = "DELETE FROM notification_logs WHERE notification_id = ANY(?::varchar[])";
+    private static final String DELETE_NOTIFICATIONS = "DELETE FROM notifications WHERE notification_id = ANY(?::varchar[])";
+
+    private static final String PURGE_QUEUE = """
+            DELETE FROM notification_queue
+            WHERE queue_id IN (
+                SELECT queue_id FROM notification_queue
+                WHERE status IN ('completed', 'failed') AND processed_at < ?
+                ORDER BY status, processed_at
+                LIMIT ?
+            )
+            """;
+
+    private static final String PURGE_LOGS = """
+            DELETE FROM notification_logs
+            WHERE log_id IN (
+                SELECT log_id FROM notification_logs
+                WHERE occurred_at < ?
+                ORDER BY occurred_at
+                LIMIT ?
+            )
+            """;
+
+    private static final String ACTIVE_BACKENDS = """
+            SELECT count(*) FROM pg_stat_activity
+            WHERE datname = current_database() AND state = 'active' AND pid <> pg_backend_pid()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<String> expireBatch(LocalDateTime now, int batchSize) {
+        return jdbcTemplate.queryForList(EXPIRE_NOTIFICATIONS, String.class, Timestamp.valueOf(now), batchSize);
+    }
+
+    public int cancelQueued(List<String> notificationIds, LocalDateTime now) {
+        if (notificationIds.isEmpty()) return 0;
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CANCEL_QUEUE);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setArray(2, con.createArrayOf("varchar", notificationIds.toArray()));
+            return ps;
+        });
+    }
+
+    // Debe ejecutarse dentro de una transacción (el bloqueo de SELECT_PURGEABLE cubre los DELETE)
+    public int purgeNotificationsBatch(LocalDateTime olderThan, int batchSize) {
+        List<String> ids = jdbcTemplate.queryForList(SELECT_PURGEABLE, String.class, Timestamp.valueOf(olderThan), batchSize);
+        if (ids.isEmpty()) return 0;
+
+        deleteByIds(DELETE_QUEUE_OF, ids);
+        deleteByIds(DELETE_LOGS_OF, ids);
+        return deleteByIds(DELETE_NOTIFICATIONS, ids);
+    }
+
+    public int purgeQueueBatch(LocalDateTime olderThan, int batchSize) {
+        return jdbcTemplate.update(PURGE_QUEUE, Timestamp.valueOf(olderThan), batchSize);
+    }
+
+    public int purgeLogsBatch(LocalDateTime olderThan, int batchSize) {
+        return jdbcTemplate.update(PURGE_LOGS, Timestamp.valueOf(olderThan), batchSize);
+    }
+
+    public int activeBackends() {
+        Integer count = jdbcTemplate.queryForObject(ACTIVE_BACKENDS, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private int deleteByIds(String sql, List<String> ids) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+            return ps;
+        });
+    }
+}
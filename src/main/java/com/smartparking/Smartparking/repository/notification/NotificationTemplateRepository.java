@@ -2,9 +2,16 @@ package com.smartparking.Smartparking.repository.notification;
 
 import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface NotificationTemplateRepository extends JpaRepository<NotificationTemplate, String> {
     Optional<NotificationTemplate> findByTypeAndIsActiveTrue(NotificationTemplate.Type type);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE NotificationTemplate t SET t.isActive = false WHERE t.type = :type AND t.templateId <> :templateId")
+    int deactivateOthers(@Param("type") NotificationTemplate.Type type, @Param("templateId") String templateId);
+}
@@ -0,0 +1,44 @@
+package com.smartparking.Smartparking.repository.notification;
+
+import com.smartparking.Smartparking.entity.notification.SpaceSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SpaceSubscriptionRepository extends JpaRepository<SpaceSubscription, String> {
+
+    List<SpaceSubscription> findByStatusAndWindowEndAfter(SpaceSubscription.Status status, LocalDateTime now);
+
+    List<SpaceSubscription> findByUserIdAndStatusOrderByWindowStartAsc(String userId, SpaceSubscription.Status status);
+
+    long countByUserIdAndStatus(String userId, SpaceSubscription.Status status);
+
+    Optional<SpaceSubscription> findBySubscriptionIdAndUserId(String subscriptionId, String userId);
+
+    @Modifying
+    @Query("""
+        UPDATE SpaceSubscription s
+        SET s.status = com.smartparking.Smartparking.entity.notification.SpaceSubscription.Status.notified,
+            s.notifiedAt = :now, s.notifiedSpaceId = :spaceId
+        WHERE s.subscriptionId IN :ids
+          AND s.status = com.smartparking.Smartparking.entity.notification.SpaceSubscription.Status.active
+        """)
+    int markNotified(@Param("ids") Collection<String> ids, @Param("spaceId") String spaceId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE SpaceSubscription s
+        SET s.status = com.smartparking.Smartparking.entity.notification.SpaceSubscription.Status.expired
+        WHERE s.status = com.smartparking.Smartparking.entity.notification.SpaceSubscription.Status.active
+          AND s.windowEnd < :now
+        """)
+    int expireEnded(@Param("now") LocalDateTime now);
+}
@@ -2,7 +2,12 @@ package com.smartparking.Smartparking.repository.notification;
 
 import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +16,16 @@ public interface UserDeviceTokenRepository extends JpaRepository<UserDeviceToken
     List<UserDeviceToken> findByUser_UserIdAndIsActiveTrue(String userId);
 
     Optional<UserDeviceToken> findByUser_UserIdAndToken(String userId, String token);
-}
\ No newline at end of file
+
+    // [userId, token, platform] de los tokens activos de un lote de usuarios
+    @Query("""
+        SELECT t.user.userId, t.token, t.platform FROM UserDeviceToken t
+        WHERE t.user.userId IN :userIds AND t.isActive = true
+        """)
+    List<Object[]> findActiveTokens(@Param("userIds") Collection<String> userIds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserDeviceToken t SET t.isActive = false WHERE t.token IN :tokens AND t.isActive = true")
+    int deactivateTokens(@Param("tokens") Collection<String> tokens);
+}
@@ -0,0 +1,79 @@
+package com.smartparking.Smartparking.repository.penalty;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class AbsenceCounterJdbcRepository {
+
+    // Incremento atómico: crea el contador o suma sobre la única fila del usuario y devuelve el resultado
+    private static final String INCREMENT = """
+            INSERT INTO absence_counters (counter_id, user_id, absence_count, strike_count, max_strikes, last_updated)
+            VALUES (gen_random_uuid()::varchar, ?, 1, 1, ?, ?)
+            ON CONFLICT (user_id) DO UPDATE
+               SET absence_count = COALESCE(absence_counters.absence_count, 0) + 1,
+                   strike_count = COALESCE(absence_counters.strike_count, 0) + 1,
+                   max_strikes = COALESCE(absence_counters.max_strikes, EXCLUDED.max_strikes),
+                   last_updated = EXCLUDED.last_updated
+            RETURNING absence_count, strike_count, max_strikes
+            """;
+
+    private static final String LOCK = "LOCK TABLE absence_counters IN SHARE ROW EXCLUSIVE MODE";
+
+    // Suma los duplicados en la fila más reciente de cada usuario y borra el resto
+    private static final String CONSOLIDATE = """
+            WITH ranked AS (
+                SELECT counter_id,
+                       ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY last_updated DESC NULLS LAST, counter_id) AS rn,
+                       COUNT(*) OVER (PARTITION BY user_id) AS copies,
+                       SUM(COALESCE(absence_count, 0)) OVER (PARTITION BY user_id) AS absences,
+                       SUM(COALESCE(strike_count, 0)) OVER (PARTITION BY user_id) AS strikes,
+                       MAX(last_updated) OVER (PARTITION BY user_id) AS updated
+                FROM absence_counters
+            ), merged AS (
+                UPDATE absence_counters ac
+                   SET absence_count = r.absences,
+                       strike_count = r.strikes,
+                       last_updated = r.updated
+                  FROM ranked r
+                 WHERE ac.counter_id = r.counter_id AND r.rn = 1 AND r.copies > 1
+            )
+            DELETE FROM absence_counters ac
+             USING ranked r
+             WHERE ac.counter_id = r.counter_id AND r.rn > 1
+            """;
+
+    // Filas heredadas sin max_strikes: un NULL leído como 0 suspendería al primer strike
+    private static final String FILL_MAX_STRIKES = "UPDATE absence_counters SET max_strikes = ? WHERE max_strikes IS NULL";
+
+    private static final String UNIQUE_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_absence_counters_user ON absence_counters (user_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CounterState(int absenceCount, int strikeCount, int maxStrikes) {}
+
+    public CounterState increment(String userId, int defaultMaxStrikes, LocalDateTime now) {
+        return jdbcTemplate.queryForObject(INCREMENT, (rs, i) -> new CounterState(
+                        rs.getInt("absence_count"),
+                        rs.getInt("strike_count"),
+                        rs.getInt("max_strikes")),
+                userId, defaultMaxStrikes, Timestamp.valueOf(now));
+    }
+
+    // Bloquea escrituras concurrentes mientras se fusionan duplicados y se garantiza el índice único
+    @Transactional
+    public int consolidateDuplicates(int defaultMaxStrikes) {
+        jdbcTemplate.execute(LOCK);
+        int removed = jdbcTemplate.update(CONSOLIDATE);
+        jdbcTemplate.update(FILL_MAX_STRIKES, defaultMaxStrikes);
+        jdbcTemplate.execute(UNIQUE_INDEX);
+        return removed;
+    }
+}
@@ -2,5 +2,40 @@ package com.smartparking.Smartparking.repository.penalty;
 
 import com.smartparking.Smartparking.entity.penalty.Suspension;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface SuspensionRepository extends JpaRepository<Suspension, String> {}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SuspensionRepository extends JpaRepository<Suspension, String> {
+
+    // [userId, endDate] de las suspensiones vigentes en :now
+    @Query("""
+            SELECT s.userId, s.endDate FROM Suspension s
+            WHERE s.status = :status
+              AND (s.startDate IS NULL OR s.startDate <= :now)
+              AND (s.endDate IS NULL OR s.endDate > :now)
+            """)
+    List<Object[]> findInForce(@Param("status") Suspension.Status status, @Param("now") LocalDateTime now);
+
+    // [userId, endDate] de las suspensiones que empezaron en (:since, :now]
+    @Query("""
+            SELECT s.userId, s.endDate FROM Suspension s
+            WHERE s.status = :status
+              AND s.startDate > :since AND s.startDate <= :now
+              AND (s.endDate IS NULL OR s.endDate > :now)
+            """)
+    List<Object[]> findStartedBetween(@Param("status") Suspension.Status status,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Suspension s SET s.status = :completed WHERE s.status = :active AND s.endDate <= :now")
+    int completeEnded(@Param("active") Suspension.Status active,
+                      @Param("completed") Suspension.Status completed,
+                      @Param("now") LocalDateTime now);
+}
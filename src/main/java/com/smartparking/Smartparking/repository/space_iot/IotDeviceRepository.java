@@ -0,0 +1,19 @@
+package com.smartparking.Smartparking.repository.space_iot;
+
+import com.smartparking.Smartparking.entity.space_iot.IotDevice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IotDeviceRepository extends JpaRepository<IotDevice, String> {
+
+    // [deviceId, isConnected]
+    @Query("SELECT d.deviceId, d.isConnected FROM IotDevice d")
+    List<Object[]> findConnectionStates();
+
+    Optional<IotDevice> findByName(String name);
+}
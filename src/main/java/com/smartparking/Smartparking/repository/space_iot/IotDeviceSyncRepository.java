@@ -0,0 +1,36 @@
+package com.smartparking.Smartparking.repository.space_iot;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class IotDeviceSyncRepository {
+
+    // Un único UPDATE para todos los dispositivos, con los valores como arrays
+    private static final String UPDATE_SYNC = """
+            UPDATE iot_devices d
+            SET last_sync = COALESCE(v.last_sync, d.last_sync), is_connected = v.is_connected
+            FROM unnest(?::varchar[], ?::timestamp[], ?::boolean[]) AS v(device_id, last_sync, is_connected)
+            WHERE d.device_id = v.device_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int updateSyncState(List<String> deviceIds, List<Timestamp> lastSyncs, List<Boolean> connected) {
+        if (deviceIds.isEmpty()) return 0;
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_SYNC);
+            ps.setArray(1, con.createArrayOf("varchar", deviceIds.toArray()));
+            ps.setArray(2, con.createArrayOf("timestamp", lastSyncs.toArray()));
+            ps.setArray(3, con.createArrayOf("boolean", connected.toArray()));
+            return ps;
+        });
+    }
+}
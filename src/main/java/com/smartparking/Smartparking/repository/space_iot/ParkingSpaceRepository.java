@@ -24,4 +24,16 @@ public interface ParkingSpaceRepository extends JpaRepository<ParkingSpace, Stri
     boolean existsByCode(String code);
 
     Optional<ParkingSpace> findByCode(String code);
-}
\ No newline at end of file
+
+    // [spaceId, code, status, estado de la reserva actual] sin cargar entidades
+    @Query("""
+        SELECT ps.spaceId, ps.code, ps.status, r.status
+        FROM ParkingSpace ps
+        LEFT JOIN Reservation r ON r.reservationId = ps.currentReservationId
+        """)
+    List<Object[]> findSpaceReservationStates();
+
+    // [spaceId, level, zone, status] para reconciliar los contadores por zona
+    @Query("SELECT ps.spaceId, ps.level, ps.zone, ps.status FROM ParkingSpace ps")
+    List<Object[]> findOccupancyStates();
+}
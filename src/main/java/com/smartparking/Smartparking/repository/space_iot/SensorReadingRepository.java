@@ -0,0 +1,9 @@
+package com.smartparking.Smartparking.repository.space_iot;
+
+import com.smartparking.Smartparking.entity.space_iot.SensorReading;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SensorReadingRepository extends JpaRepository<SensorReading, String> {
+}
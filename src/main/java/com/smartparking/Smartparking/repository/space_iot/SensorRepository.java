@@ -0,0 +1,40 @@
+package com.smartparking.Smartparking.repository.space_iot;
+
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SensorRepository extends JpaRepository<Sensor, String> {
+
+    // [spaceId, deviceId] de cada sensor instalado
+    @Query("SELECT s.parkingSpace.spaceId, s.iotDevice.deviceId FROM Sensor s")
+    List<Object[]> findSpaceDeviceAssignments();
+
+    Optional<Sensor> findByParkingSpace_SpaceId(String spaceId);
+
+    // [sensorId, spaceId, state]
+    @Query("SELECT s.sensorId, s.parkingSpace.spaceId, s.state FROM Sensor s")
+    List<Object[]> findSensorBindings();
+
+    // [sensorId, spaceId, state] de un sensor
+    @Query("SELECT s.sensorId, s.parkingSpace.spaceId, s.state FROM Sensor s WHERE s.sensorId = :sensorId")
+    List<Object[]> findSensorBinding(@Param("sensorId") String sensorId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Sensor s SET s.state = :state WHERE s.sensorId IN :sensorIds")
+    int updateState(@Param("sensorIds") Collection<String> sensorIds, @Param("state") Sensor.SensorState state);
+
+    @Modifying
+    @Query("UPDATE Sensor s SET s.lastDistance = :distance WHERE s.sensorId = :sensorId")
+    int updateLastDistance(@Param("sensorId") String sensorId, @Param("distance") Double distance);
+}
@@ -0,0 +1,19 @@
+package com.smartparking.Smartparking.repository.space_iot;
+
+import com.smartparking.Smartparking.entity.space_iot.SpaceLedStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SpaceLedStatusRepository extends JpaRepository<SpaceLedStatus, String> {
+
+    List<SpaceLedStatus> findByParkingSpace_SpaceIdIn(Collection<String> spaceIds);
+
+    // [spaceId, color] del último estado confirmado por los controladores
+    @Query("SELECT l.parkingSpace.spaceId, l.color FROM SpaceLedStatus l")
+    List<Object[]> findAllColors();
+}
@@ -38,15 +38,11 @@ public class DashboardServiceImpl implements DashboardService {
         List<Reservation> recentReservations = reservationRepository
                 .findTop5ByUser_UserIdOrderByStartTimeDesc(userId); // Ajusta según tu repo
 
-        // 3. Contador de ausencias (corregido: evita null)
-        Long absenceCount = absenceCounterRepository.getTotalAbsenceCountByUserId(userId);
-        int absences = (absenceCount != null) ? absenceCount.intValue() : 0;
+        // 3. Contador de ausencias: una sola fila por usuario
+        AbsenceCounter counter = absenceCounterRepository.findByUserId(userId).orElse(null);
+        int absences = counter != null && counter.getAbsenceCount() != null ? counter.getAbsenceCount() : 0;
 
         // 4. Verificar si puede reservar (opcional: strikes)
-        AbsenceCounter counter = absenceCounterRepository
-                .findTopByUserIdOrderByLastUpdatedDesc(userId)
-                .orElse(null);
-
         boolean canReserve = counter == null || counter.getStrikeCount() < counter.getMaxStrikes();
         if (counter != null && counter.getStrikeCount() >= counter.getMaxStrikes()) {
             canReserve = false;
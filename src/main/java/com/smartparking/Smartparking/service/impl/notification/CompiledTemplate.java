@@ -0,0 +1,71 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Plantilla analizada una sola vez: fragmentos literales intercalados con huecos {{clave}}.
+// Se renderiza en una pasada sobre un StringBuilder con el tamaño exacto.
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;   // literals.length == keys.length + 1
+    private final String[] keys;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] keys, int literalLength) {
+        this.literals = literals;
+        this.keys = keys;
+        this.literalLength = literalLength;
+        this.placeholders = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) placeholders[i] = OPEN + keys[i] + CLOSE;
+    }
+
+    public static CompiledTemplate compile(String template) {
+        if (template == null) template = "";
+
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+
+        while (true) {
+            int open = template.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : template.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) break;
+
+            String literal = template.substring(position, open);
+            literals.add(literal);
+            literalLength += literal.length();
+            keys.add(template.substring(open + OPEN.length(), close));
+            position = close + CLOSE.length();
+        }
+
+        String tail = template.substring(position);
+        literals.add(tail);
+        literalLength += tail.length();
+
+        return new CompiledTemplate(literals.toArray(String[]::new), keys.toArray(String[]::new), literalLength);
+    }
+
+    // Igual que el reemplazo anterior: un hueco sin dato se deja tal cual ({{clave}})
+    public String render(Map<String, Object> data) {
+        if (keys.length == 0) return literals[0];
+
+        String[] values = new String[keys.length];
+        int length = literalLength;
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = data.containsKey(keys[i]) ? String.valueOf(data.get(keys[i])) : placeholders[i];
+            length += values[i].length();
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < keys.length; i++) {
+            sb.append(literals[i]).append(values[i]);
+        }
+        return sb.append(literals[keys.length]).toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Cola de retardo: libera las notificaciones diferidas ya vencidas a ritmo limitado hacia el dispatcher
+@Component
+@ConditionalOnProperty(name = "smartparking.notifications.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DeferredNotificationReleaser {
+
+    private final NotificationQueueJdbcRepository queueJdbcRepository;
+    private final TokenBucket releaseBucket;
+    private final int maxPerRun;
+
+    public DeferredNotificationReleaser(
+            NotificationQueueJdbcRepository queueJdbcRepository,
+            @Value("${smartparking.notifications.quiet-hours.release-per-second:50}") double releasePerSecond,
+            @Value("${smartparking.notifications.quiet-hours.release-burst:200}") int releaseBurst) {
+        this.queueJdbcRepository = queueJdbcRepository;
+        this.releaseBucket = new TokenBucket(releasePerSecond, releaseBurst);
+        this.maxPerRun = releaseBurst;
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.quiet-hours.release-ms:1000}")
+    public void release() {
+        int permits = releaseBucket.acquireUpTo(maxPerRun);
+        if (permits == 0) return;
+
+        try {
+            int released = queueJdbcRepository.releaseDeferred(LocalDateTime.now(), permits);
+            releaseBucket.refund(permits - released);
+            if (released > 0) log.debug("{} notificaciones diferidas liberadas", released);
+        } catch (Exception e) {
+            releaseBucket.refund(permits);
+            log.warn("Error liberando notificaciones diferidas: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.service.notification.NotificationChannelSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Canal por defecto mientras no haya un proveedor real configurado para el canal
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class LoggingNotificationSender implements NotificationChannelSender {
+
+    @Override
+    public boolean supports(Notification.Channel channel) {
+        return true;
+    }
+
+    @Override
+    public void send(ClaimedNotification notification) {
+        log.info("[{}] Notificación {} para usuario {}: {}",
+                notification.channel(), notification.notificationId(), notification.userId(), notification.title());
+    }
+}
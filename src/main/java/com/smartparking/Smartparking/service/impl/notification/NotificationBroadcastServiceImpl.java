@@ -0,0 +1,324 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.dto.request.notification.BroadcastRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.BroadcastJobResponse;
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.notification.NotificationBulkRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationBulkRepository.EnabledPreference;
+import com.smartparking.Smartparking.repository.notification.NotificationBulkRepository.NewNotification;
+import com.smartparking.Smartparking.service.notification.NotificationBroadcastService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class NotificationBroadcastServiceImpl implements NotificationBroadcastService {
+
+    private static final int MAX_TRACKED_JOBS = 50;
+
+    private final NotificationBulkRepository bulkRepository;
+    private final NotificationLookupCache lookupCache;
+    private final NotificationTemplateRenderer templateRenderer;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounterStore unreadCounters;
+    private final NotificationExpiryPolicy expiryPolicy;
+    private final NotificationCoalescer coalescer;
+    private final NotificationMetrics metrics;
+    private final NotificationLogAppender logAppender;
+    private final QuietHoursPolicy quietHoursPolicy;
+    private final NotificationPriorityPolicy priorityPolicy;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    // Últimos trabajos (en curso y terminados) para consultar el progreso
+    private final Map<String, BroadcastJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BroadcastJob> eldest) {
+            return size() > MAX_TRACKED_JOBS && !"running".equals(eldest.getValue().status);
+        }
+    };
+
+    private static final class BroadcastJob {
+        final String jobId = UUID.randomUUID().toString();
+        final String type;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger deferred = new AtomicInteger();
+        volatile int recipients;
+        volatile String status = "queued";
+        volatile String errorMessage;
+        volatile LocalDateTime finishedAt;
+
+        BroadcastJob(String type) {
+            this.type = type;
+        }
+    }
+
+    public NotificationBroadcastServiceImpl(
+            NotificationBulkRepository bulkRepository,
+            NotificationLookupCache lookupCache,
+            NotificationTemplateRenderer templateRenderer,
+            TransactionTemplate transactionTemplate,
+            UnreadCounterStore unreadCounters,
+            NotificationExpiryPolicy expiryPolicy,
+            NotificationCoalescer coalescer,
+            NotificationMetrics metrics,
+            NotificationLogAppender logAppender,
+            QuietHoursPolicy quietHoursPolicy,
+            NotificationPriorityPolicy priorityPolicy,
+            @Value("${smartparking.notifications.broadcast.chunk-size:1000}") int chunkSize,
+            @Value("${smartparking.notifications.broadcast.threads:1}") int threads) {
+        this.bulkRepository = bulkRepository;
+        this.lookupCache = lookupCache;
+        this.templateRenderer = templateRenderer;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounters = unreadCounters;
+        this.expiryPolicy = expiryPolicy;
+        this.coalescer = coalescer;
+        this.metrics = metrics;
+        this.logAppender = logAppender;
+        this.quietHoursPolicy = quietHoursPolicy;
+        this.priorityPolicy = priorityPolicy;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public BroadcastJobResponse startBroadcast(BroadcastRequestDto request) {
+        NotificationPreference.NotificationType type = validate(request);
+        BroadcastJob job = track(new BroadcastJob(type.name()));
+        try {
+            executor.execute(() -> run(job, type, request));
+        } catch (RejectedExecutionException e) {
+            job.status = "failed";
+            job.errorMessage = "Ejecutor de broadcasts no disponible";
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, job.errorMessage);
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public BroadcastJobResponse broadcastNow(BroadcastRequestDto request) {
+        NotificationPreference.NotificationType type = validate(request);
+        BroadcastJob job = track(new BroadcastJob(type.name()));
+        run(job, type, request);
+        return toResponse(job);
+    }
+
+    @Override
+    public BroadcastJobResponse getJob(String jobId) {
+        BroadcastJob job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Broadcast no encontrado: " + jobId);
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public List<BroadcastJobResponse> getRecentJobs() {
+        List<BroadcastJob> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs.values());
+        }
+        return snapshot.stream().map(this::toResponse).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(BroadcastJob job, NotificationPreference.NotificationType type, BroadcastRequestDto request) {
+        job.status = "running";
+        try {
+            NotificationTemplate template = lookupCache
+                    .getActiveTemplate(NotificationTemplate.Type.valueOf(type.name()))
+                    .orElseThrow(() -> new IllegalStateException("No hay plantilla activa para tipo: " + type));
+
+            List<EnabledPreference> preferences = request.isAllUsers()
+                    ? bulkRepository.findEnabledPreferencesForActiveUsers(type.name())
+                    : bulkRepository.findEnabledPreferences(type.name(), distinct(request.getUserIds()));
+
+            int requested = request.isAllUsers() ? preferences.size() : distinct(request.getUserIds()).size();
+            job.recipients = requested;
+            job.skipped.addAndGet(requested - preferences.size()); // sin preferencia habilitada
+            Notification.Type notificationType = Notification.Type.valueOf(type.name());
+            Notification.Priority priority = parsePriority(request.getPriority());
+            metrics.record(notificationType, null, NotificationMetrics.Outcome.disabled, requested - preferences.size());
+
+            Map<String, Object> baseData = request.getData() != null ? request.getData() : Map.of();
+            Map<String, Map<String, Object>> userData = request.getUserData() != null ? request.getUserData() : Map.of();
+            Map<Map<String, Object>, RenderedData> renderedByData = new HashMap<>();
+
+            List<NewNotification> chunk = new ArrayList<>(Math.min(chunkSize, preferences.size()));
+            for (EnabledPreference pref : preferences) {
+                job.processed.incrementAndGet();
+
+                Notification.Channel channel = parseChannel(pref.channel());
+                if (channel == null) {
+                    job.skipped.incrementAndGet();
+                    metrics.record(notificationType, null, NotificationMetrics.Outcome.disabled);
+                    continue;
+                }
+
+                Map<String, Object> data = merge(baseData, userData.get(pref.userId()));
+                // Una sola renderización por mapa de datos distinto
+                RenderedData rendered = renderedByData.computeIfAbsent(data, d -> {
+                    NotificationTemplateRenderer.Rendered r = templateRenderer.render(template, d);
+                    return new RenderedData(r.title(), r.message(), toJson(d),
+                            NotificationCoalescer.dedupKey(d, r.title(), r.message()));
+                });
+
+                if (!coalescer.tryAccept(pref.userId(), notificationType, rendered.dedupKey())) {
+                    job.skipped.incrementAndGet(); // mismo broadcast repetido dentro de la ventana
+                    metrics.record(notificationType, channel, NotificationMetrics.Outcome.coalesced);
+                    continue;
+                }
+
+                // En horario silencioso se difiere al final de la ventana en lugar de omitirse
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime deferUntil = quietHoursPolicy.deferUntil(pref.quietHoursStart(), pref.quietHoursEnd(), now);
+                if (deferUntil != null) job.deferred.incrementAndGet();
+                chunk.add(new NewNotification(
+                        UUID.randomUUID().toString(), pref.userId(), rendered.title(), rendered.message(),
+                        notificationType, channel, priority,
+                        rendered.metadata(), now, deferUntil != null ? deferUntil : now,
+                        expiryPolicy.expiresAt(notificationType, now)));
+
+                if (chunk.size() >= chunkSize) {
+                    flush(job, chunk);
+                }
+            }
+            flush(job, chunk);
+
+            job.status = "completed";
+            log.info("Broadcast {} ({}): {} creadas ({} diferidas), {} omitidas",
+                    job.jobId, type, job.created.get(), job.deferred.get(), job.skipped.get());
+        } catch (Exception e) {
+            job.status = "failed";
+            job.errorMessage = e.getMessage();
+            log.error("Broadcast {} falló: {}", job.jobId, e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private record RenderedData(String title, String message, String metadata, String dedupKey) {}
+
+    // Cada lote en su propia transacción: no se retienen conexiones durante todo el broadcast
+    private void flush(BroadcastJob job, List<NewNotification> chunk) {
+        if (chunk.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(tx -> bulkRepository.insertBatch(chunk));
+        chunk.forEach(n -> {
+            unreadCounters.added(n.userId(), 1);
+            metrics.record(n.type(), n.channel(), n.scheduledAt().isAfter(n.createdAt())
+                    ? NotificationMetrics.Outcome.deferred : NotificationMetrics.Outcome.queued);
+        });
+        logAppender.appendAll(chunk.stream().map(NewNotification::notificationId).toList(), NotificationLog.EventType.created);
+        job.created.addAndGet(chunk.size());
+        chunk.clear();
+    }
+
+    private NotificationPreference.NotificationType validate(BroadcastRequestDto request) {
+        if (!request.isAllUsers() && (request.getUserIds() == null || request.getUserIds().isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe indicar userIds o allUsers");
+        }
+        try {
+            parsePriority(request.getPriority());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Prioridad inválida: " + request.getPriority());
+        }
+        try {
+            return NotificationPreference.NotificationType.valueOf(request.getType().trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tipo de notificación inválido: " + request.getType());
+        }
+    }
+
+    private Notification.Priority parsePriority(String priority) {
+        if (priority == null || priority.isBlank()) return priorityPolicy.broadcastDefault();
+        return Notification.Priority.valueOf(priority.trim().toLowerCase());
+    }
+
+    private BroadcastJob track(BroadcastJob job) {
+        synchronized (jobs) {
+            jobs.put(job.jobId, job);
+        }
+        return job;
+    }
+
+    private static List<String> distinct(List<String> userIds) {
+        return new ArrayList<>(new LinkedHashSet<>(userIds));
+    }
+
+    private static Map<String, Object> merge(Map<String, Object> base, Map<String, Object> extra) {
+        if (extra == null || extra.isEmpty()) return base;
+        Map<String, Object> merged = new HashMap<>(base);
+        merged.putAll(extra);
+        return merged;
+    }
+
+    private static Notification.Channel parseChannel(String channel) {
+        if (channel == null) return null;
+        try {
+            return Notification.Channel.valueOf(channel.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Error serializando metadata: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private BroadcastJobResponse toResponse(BroadcastJob job) {
+        return BroadcastJobResponse.builder()
+                .jobId(job.jobId)
+                .type(job.type)
+                .status(job.status)
+                .recipients(job.recipients)
+                .processed(job.processed.get())
+                .created(job.created.get())
+                .skipped(job.skipped.get())
+                .deferred(job.deferred.get())
+                .errorMessage(job.errorMessage)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Descarta notificaciones repetidas (usuario, tipo, clave) dentro de una ventana.
+// La ventana se divide en cubetas de tiempo en anillo: rotar una cubeta es descartar su mapa entero,
+// sin recorrer claves ni tareas de limpieza.
+@Component
+public class NotificationCoalescer {
+
+    public static final String DEDUP_KEY = "dedupKey";
+
+    private final Set<Notification.Type> coalescedTypes = EnumSet.noneOf(Notification.Type.class);
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    private record Key(String userId, Notification.Type type, String dedupKey) {}
+
+    private static final class Bucket {
+        volatile long epoch = -1;
+        volatile Map<Key, Boolean> keys = new ConcurrentHashMap<>();
+    }
+
+    public NotificationCoalescer(
+            @Value("${smartparking.notifications.coalesce.types:space_available,system_alert}") List<String> types,
+            @Value("${smartparking.notifications.coalesce.window-ms:60000}") long windowMs,
+            @Value("${smartparking.notifications.coalesce.buckets:6}") int bucketCount) {
+        types.stream().map(String::trim).filter(t -> !t.isEmpty())
+                .forEach(t -> coalescedTypes.add(Notification.Type.valueOf(t)));
+        this.bucketMillis = Math.max(1, windowMs / bucketCount);
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) buckets[i] = new Bucket();
+    }
+
+    // true si debe encolarse; false si es un duplicado dentro de la ventana
+    public boolean tryAccept(String userId, Notification.Type type, String dedupKey) {
+        if (!coalescedTypes.contains(type)) return true;
+
+        Key key = new Key(userId, type, dedupKey);
+        long epoch = System.currentTimeMillis() / bucketMillis;
+
+        // Cubetas anteriores aún dentro de la ventana
+        for (int age = 1; age < buckets.length; age++) {
+            Bucket bucket = buckets[slot(epoch - age)];
+            if (bucket.epoch == epoch - age && bucket.keys.containsKey(key)) {
+                suppressed.increment();
+                return false;
+            }
+        }
+
+        Bucket bucket = current(epoch);
+        if (bucket.keys.putIfAbsent(key, Boolean.TRUE) != null) {
+            suppressed.increment();
+            return false;
+        }
+        accepted.increment();
+        releaseOnRollback(bucket, key);
+        return true;
+    }
+
+    // Si el alta se revierte, la clave no debe bloquear el reintento
+    private static void releaseOnRollback(Bucket bucket, Key key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        Map<Key, Boolean> keys = bucket.keys;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) keys.remove(key);
+            }
+        });
+    }
+
+    // Clave explícita en los datos ("dedupKey") o, si no hay, el contenido renderizado
+    public static String dedupKey(Map<String, Object> data, String title, String message) {
+        Object explicit = data.get(DEDUP_KEY);
+        if (explicit != null) return String.valueOf(explicit);
+        return Integer.toHexString(Objects.hash(title, message)) + ":" + (title.length() + message.length());
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    private Bucket current(long epoch) {
+        Bucket bucket = buckets[slot(epoch)];
+        if (bucket.epoch != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch != epoch) {
+                    bucket.keys = new ConcurrentHashMap<>();
+                    bucket.epoch = epoch;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length);
+    }
+}
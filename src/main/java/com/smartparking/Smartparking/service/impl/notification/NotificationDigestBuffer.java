@@ -0,0 +1,232 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import com.smartparking.Smartparking.repository.notification.NotificationBulkRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationBulkRepository.NewNotification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Modo resumen: acumula por usuario y canal las notificaciones de baja prioridad y entrega
+// un único mensaje por ventana (una fila en notifications y en la cola en lugar de N)
+@Component
+@Slf4j
+public class NotificationDigestBuffer {
+
+    private record DigestKey(String userId, Notification.Channel channel) {}
+
+    private record Item(Notification.Type type, String title, LocalDateTime createdAt) {}
+
+    private static final class Digest {
+        final List<Item> items = new ArrayList<>();
+        LocalDateTime dueAt;
+        LocalTime quietHoursStart;
+        LocalTime quietHoursEnd;
+        int overflow;
+    }
+
+    private final NotificationBulkRepository bulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounterStore unreadCounters;
+    private final NotificationMetrics metrics;
+    private final NotificationLogAppender logAppender;
+    private final NotificationExpiryPolicy expiryPolicy;
+    private final QuietHoursPolicy quietHoursPolicy;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<DigestKey, Digest> digests = new ConcurrentHashMap<>();
+    private final int defaultWindowMinutes;
+    private final int maxItems;
+    private final int maxLines;
+
+    public NotificationDigestBuffer(
+            NotificationBulkRepository bulkRepository,
+            TransactionTemplate transactionTemplate,
+            UnreadCounterStore unreadCounters,
+            NotificationMetrics metrics,
+            NotificationLogAppender logAppender,
+            NotificationExpiryPolicy expiryPolicy,
+            QuietHoursPolicy quietHoursPolicy,
+            @Value("${smartparking.notifications.digest.default-window-minutes:60}") int defaultWindowMinutes,
+            @Value("${smartparking.notifications.digest.max-items:100}") int maxItems,
+            @Value("${smartparking.notifications.digest.max-lines:10}") int maxLines) {
+        this.bulkRepository = bulkRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounters = unreadCounters;
+        this.metrics = metrics;
+        this.logAppender = logAppender;
+        this.expiryPolicy = expiryPolicy;
+        this.quietHoursPolicy = quietHoursPolicy;
+        this.defaultWindowMinutes = defaultWindowMinutes;
+        this.maxItems = maxItems;
+        this.maxLines = maxLines;
+    }
+
+    public int size() {
+        return digests.size();
+    }
+
+    // Se acumula al confirmar la transacción que originó la notificación
+    public void add(String userId, Notification.Channel channel, NotificationPreference pref,
+                    Notification.Type type, String title) {
+        LocalDateTime now = LocalDateTime.now();
+        int window = pref.getDigestWindowMinutes() != null && pref.getDigestWindowMinutes() > 0
+                ? pref.getDigestWindowMinutes() : defaultWindowMinutes;
+        Item item = new Item(type, title, now);
+
+        afterCommit(() -> digests.compute(new DigestKey(userId, channel), (key, digest) -> {
+            if (digest == null) digest = new Digest();
+            LocalDateTime dueAt = now.plusMinutes(window);
+            if (digest.dueAt == null || dueAt.isBefore(digest.dueAt)) digest.dueAt = dueAt;
+            digest.quietHoursStart = pref.getQuietHoursStart();
+            digest.quietHoursEnd = pref.getQuietHoursEnd();
+            if (digest.items.size() < maxItems) {
+                digest.items.add(item);
+            } else {
+                digest.overflow++;
+            }
+            return digest;
+        }));
+        metrics.record(type, channel, NotificationMetrics.Outcome.digested);
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.digest.flush-ms:30000}")
+    public void flushDue() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(true);
+    }
+
+    private void flush(boolean all) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NewNotification> batch = new ArrayList<>();
+        Map<DigestKey, Digest> flushed = new LinkedHashMap<>();
+
+        for (DigestKey key : digests.keySet()) {
+            Digest[] removed = new Digest[1];
+            digests.computeIfPresent(key, (k, digest) -> {
+                if (!all && digest.dueAt.isAfter(now)) return digest;
+                removed[0] = digest;
+                return null;
+            });
+            if (removed[0] != null) {
+                NewNotification digest = render(key, removed[0], now);
+                if (digest != null) {
+                    batch.add(digest);
+                    flushed.put(key, removed[0]);
+                }
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> bulkRepository.insertBatch(batch));
+            for (NewNotification n : batch) {
+                unreadCounters.added(n.userId(), 1);
+                metrics.record(n.type(), n.channel(), NotificationMetrics.Outcome.queued);
+            }
+            logAppender.appendAll(batch.stream().map(NewNotification::notificationId).toList(), NotificationLog.EventType.created);
+            log.info("{} resúmenes de notificaciones encolados", batch.size());
+        } catch (Exception e) {
+            // Se devuelven al buffer para el próximo flush; se fusionan con lo acumulado mientras tanto
+            flushed.forEach((key, digest) -> digests.merge(key, digest, this::restore));
+            log.warn("Error encolando {} resúmenes de notificaciones: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Fusiona el resumen que no se pudo encolar con el que se ha ido acumulando desde entonces
+    private Digest restore(Digest current, Digest failed) {
+        List<Item> pending = new ArrayList<>(failed.items);
+        pending.addAll(current.items);
+        current.items.clear();
+        current.items.addAll(pending.subList(0, Math.min(pending.size(), maxItems)));
+        current.overflow += failed.overflow + Math.max(0, pending.size() - maxItems);
+        if (failed.dueAt.isBefore(current.dueAt)) current.dueAt = failed.dueAt;
+        return current;
+    }
+
+    private NewNotification render(DigestKey key, Digest digest, LocalDateTime now) {
+        // Lo que ya caducó (p. ej. un espacio libre de hace una hora) no entra en el resumen
+        List<Item> items = digest.items.stream()
+                .filter(item -> {
+                    LocalDateTime expiresAt = expiryPolicy.expiresAt(item.type(), item.createdAt());
+                    return expiresAt == null || expiresAt.isAfter(now);
+                })
+                .toList();
+        if (items.isEmpty()) return null;
+
+        int total = items.size() + digest.overflow;
+        StringBuilder message = new StringBuilder();
+        items.stream().limit(maxLines).forEach(item -> message.append("• ").append(item.title()).append('\n'));
+        if (total > maxLines) {
+            message.append("… y ").append(total - maxLines).append(" más");
+        }
+
+        Map<Notification.Type, Integer> byType = new EnumMap<>(Notification.Type.class);
+        items.forEach(item -> byType.merge(item.type(), 1, Integer::sum));
+        Notification.Type mainType = byType.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(items.get(0).type());
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("digest", true);
+        metadata.put("count", total);
+        metadata.put("types", byType);
+        metadata.put("from", items.get(0).createdAt().toString());
+        metadata.put("to", items.stream().map(Item::createdAt).max(Comparator.naturalOrder()).orElse(now).toString());
+
+        LocalDateTime deferUntil = quietHoursPolicy.deferUntil(digest.quietHoursStart, digest.quietHoursEnd, now);
+        return new NewNotification(
+                UUID.randomUUID().toString(), key.userId(),
+                "Resumen: " + total + (total == 1 ? " notificación" : " notificaciones"),
+                message.toString().stripTrailing(),
+                mainType, key.channel(), Notification.Priority.low,
+                toJson(metadata), now, deferUntil != null ? deferUntil : now,
+                expiryPolicy.expiresAt(mainType, now));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Error serializando metadata del resumen: {}", e.getMessage());
+            return "{}";
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.service.impl.notification.NotificationLaneStats.Lane;
+import com.smartparking.Smartparking.service.notification.BatchedChannelSender;
+import com.smartparking.Smartparking.service.notification.NotificationChannelSender;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Consume notification_queue por carriles de prioridad: reparto ponderado entre carriles, límite de envíos
+// en vuelo por carril y actualización de estados en lote. Un broadcast en "low" no retrasa a "urgent".
+@Component
+@ConditionalOnProperty(name = "smartparking.notifications.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationQueueJdbcRepository queueJdbcRepository;
+    private final NotificationMetrics metrics;
+    private final NotificationLogAppender logAppender;
+    private final NotificationLaneStats laneStats;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Notification.Channel, NotificationChannelSender> senders = new EnumMap<>(Notification.Channel.class);
+    private final ExecutorService pool;
+    private final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1);
+    private final Queue<SendOutcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+    private final long sendTimeoutMs;
+
+    private record SendOutcome(ClaimedNotification notification, String error) {}
+
+    public NotificationDispatcher(
+            NotificationQueueJdbcRepository queueJdbcRepository,
+            List<NotificationChannelSender> channelSenders,
+            NotificationMetrics metrics,
+            NotificationLogAppender logAppender,
+            NotificationLaneStats laneStats,
+            TransactionTemplate transactionTemplate,
+            @Value("${smartparking.notifications.dispatcher.batch-size:100}") int batchSize,
+            @Value("${smartparking.notifications.dispatcher.max-batches-per-run:10}") int maxBatchesPerRun,
+            @Value("${smartparking.notifications.dispatcher.max-retries:5}") int maxRetries,
+            @Value("${smartparking.notifications.dispatcher.backoff-base-ms:5000}") long baseBackoffMs,
+            @Value("${smartparking.notifications.dispatcher.backoff-max-ms:3600000}") long maxBackoffMs,
+            @Value("${smartparking.notifications.dispatcher.lease-ms:120000}") long leaseMs,
+            @Value("${smartparking.notifications.dispatcher.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.queueJdbcRepository = queueJdbcRepository;
+        this.metrics = metrics;
+        this.logAppender = logAppender;
+        this.laneStats = laneStats;
+        this.transactionTemplate = transactionTemplate;
+        // Un hilo por envío permitido en vuelo: los límites por carril son la concurrencia real
+        this.pool = Executors.newFixedThreadPool(laneStats.totalConcurrency());
+        this.watchdog.setRemoveOnCancelPolicy(true);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        // La lista llega ordenada por @Order: el primer sender que soporta el canal gana
+        for (Notification.Channel channel : Notification.Channel.values()) {
+            channelSenders.stream()
+                    .filter(s -> s.supports(channel))
+                    .findFirst()
+                    .ifPresent(s -> senders.put(channel, s));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.dispatcher.poll-ms:250}")
+    public void dispatch() {
+        try {
+            flushOutcomes();
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (claimRound() == 0) return; // cola vacía o carriles llenos
+            }
+        } catch (Exception e) {
+            log.warn("Error despachando notificaciones: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        watchdog.shutdownNow();
+        flushOutcomes();
+    }
+
+    // Reparto ponderado (urgent 8 : high 4 : medium 2 : low 1 por defecto) del tamaño de lote entre carriles.
+    // La cuota que un carril no usa (cola vacía o sin cupo) pasa al siguiente carril de menor prioridad.
+    private int claimRound() {
+        List<Lane> lanes = laneStats.lanes();
+        int totalWeight = lanes.stream().mapToInt(Lane::weight).sum();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiredBefore = now.minus(leaseMs, ChronoUnit.MILLIS);
+        int total = 0;
+        int carry = 0;
+        for (Lane lane : lanes) {
+            int quota = Math.max(1, batchSize * lane.weight() / totalWeight) + carry;
+            int granted = laneStats.reserve(lane, quota);
+
+            List<ClaimedNotification> claimed = granted > 0
+                    ? queueJdbcRepository.claimBatch(lane.priority(), granted, now, leaseExpiredBefore)
+                    : List.of();
+            laneStats.release(lane, granted - claimed.size());
+            laneStats.claimed(lane, claimed.size());
+
+            claimed.forEach(notification -> submit(lane, notification));
+            carry = quota - claimed.size();
+            total += claimed.size();
+        }
+        return total;
+    }
+
+    private void submit(Lane lane, ClaimedNotification notification) {
+        AtomicBoolean reported = new AtomicBoolean();
+        ScheduledFuture<?>[] timeout = new ScheduledFuture<?>[1];
+
+        // Cada lease vencido suma un intento: una fila que tumba al nodo que la procesa acaba en 'failed'
+        if (notification.retryCount() > maxRetries) {
+            complete(lane, notification, "Lease vencido en " + notification.retryCount() + " intentos", reported);
+            return;
+        }
+
+        if (senders.get(notification.channel()) instanceof BatchedChannelSender batched) {
+            // La etapa agrupa y limita por su cuenta: el cupo del carril se libera al entregarle la notificación
+            laneStats.release(lane, 1);
+            boolean accepted = batched.offer(notification, error -> {
+                if (timeout[0] != null) timeout[0].cancel(false);
+                report(lane, notification, error, reported);
+            });
+            if (!accepted) {
+                report(lane, notification, "Etapa de entrega saturada", reported);
+                return;
+            }
+            timeout[0] = watchdog.schedule(() -> report(lane, notification, "Tiempo de envío agotado", reported),
+                    sendTimeoutMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        Future<?> task = pool.submit(() -> {
+            String error = null;
+            try {
+                sender(notification).send(notification);
+            } catch (Exception e) {
+                error = describe(e);
+            }
+            if (timeout[0] != null) timeout[0].cancel(false);
+            complete(lane, notification, error, reported);
+        });
+        timeout[0] = watchdog.schedule(() -> {
+            task.cancel(true);
+            complete(lane, notification, "Tiempo de envío agotado", reported);
+        }, sendTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Lo que termine primero (envío o timeout) libera el cupo del carril y deja el resultado para el próximo flush
+    private void complete(Lane lane, ClaimedNotification notification, String error, AtomicBoolean reported) {
+        if (!reported.compareAndSet(false, true)) return;
+        laneStats.release(lane, 1);
+        record(lane, notification, error);
+    }
+
+    private void report(Lane lane, ClaimedNotification notification, String error, AtomicBoolean reported) {
+        if (reported.compareAndSet(false, true)) record(lane, notification, error);
+    }
+
+    private void record(Lane lane, ClaimedNotification notification, String error) {
+        long latencyMs = notification.scheduledAt() != null
+                ? Duration.between(notification.scheduledAt(), LocalDateTime.now()).toMillis()
+                : 0;
+        laneStats.completed(lane, latencyMs, error == null);
+        outcomes.add(new SendOutcome(notification, error));
+    }
+
+    private void flushOutcomes() {
+        if (outcomes.isEmpty()) return;
+
+        List<SendOutcome> drained = new ArrayList<>();
+        SendOutcome polled;
+        while ((polled = outcomes.poll()) != null) drained.add(polled);
+
+        List<String> completedQueue = new ArrayList<>();
+        List<String> completedNotifications = new ArrayList<>();
+        List<String> retryIds = new ArrayList<>();
+        List<Integer> retryCounts = new ArrayList<>();
+        List<Timestamp> retryAt = new ArrayList<>();
+        List<String> retryErrors = new ArrayList<>();
+        List<String> failedQueue = new ArrayList<>();
+        List<String> failedNotifications = new ArrayList<>();
+        List<Integer> failedCounts = new ArrayList<>();
+        List<String> failedErrors = new ArrayList<>();
+
+        for (SendOutcome outcome : drained) {
+            ClaimedNotification notification = outcome.notification();
+            if (outcome.error() == null) {
+                completedQueue.add(notification.queueId());
+                completedNotifications.add(notification.notificationId());
+                continue;
+            }
+
+            int attempts = notification.retryCount() + 1;
+            if (attempts > maxRetries) {
+                failedQueue.add(notification.queueId());
+                failedNotifications.add(notification.notificationId());
+                failedCounts.add(attempts);
+                failedErrors.add(outcome.error());
+            } else {
+                retryIds.add(notification.queueId());
+                retryCounts.add(attempts);
+                retryAt.add(Timestamp.valueOf(LocalDateTime.now().plus(backoffMs(attempts), ChronoUnit.MILLIS)));
+                retryErrors.add(outcome.error());
+            }
+        }
+
+        // Las tres actualizaciones se confirman juntas; si fallan, los resultados vuelven a la cola en memoria
+        // (si se perdieran, las filas seguirían en 'processing' y se reenviarían al vencer el lease)
+        LocalDateTime finishedAt = LocalDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                queueJdbcRepository.markCompleted(completedQueue, completedNotifications, finishedAt);
+                queueJdbcRepository.reschedule(retryIds, retryCounts, retryAt, retryErrors, finishedAt);
+                queueJdbcRepository.markFailed(failedQueue, failedNotifications, failedCounts, failedErrors, finishedAt);
+            });
+        } catch (Exception e) {
+            outcomes.addAll(drained);
+            log.warn("Error guardando {} resultados de envío, se reintentará: {}", drained.size(), e.getMessage());
+            return;
+        }
+
+        for (SendOutcome outcome : drained) {
+            recordOutcome(outcome);
+        }
+
+        if (!retryIds.isEmpty() || !failedQueue.isEmpty()) {
+            log.warn("Notificaciones: {} enviadas, {} reprogramadas, {} fallidas",
+                    completedQueue.size(), retryIds.size(), failedQueue.size());
+        } else {
+            log.debug("Notificaciones: {} enviadas", completedQueue.size());
+        }
+    }
+
+    // Métricas y bitácora solo cuando el resultado ya está persistido
+    private void recordOutcome(SendOutcome outcome) {
+        ClaimedNotification notification = outcome.notification();
+        String error = outcome.error();
+        if (error == null) {
+            metrics.record(notification.type(), notification.channel(), NotificationMetrics.Outcome.sent);
+            logAppender.append(notification.notificationId(), notification.userId(), NotificationLog.EventType.sent,
+                    Map.of("channel", notification.channel().name()));
+            return;
+        }
+
+        int attempts = notification.retryCount() + 1;
+        if (attempts > maxRetries) {
+            metrics.record(notification.type(), notification.channel(), NotificationMetrics.Outcome.failed);
+            logAppender.append(notification.notificationId(), notification.userId(), NotificationLog.EventType.failed,
+                    Map.of("attempts", attempts, "error", error));
+        } else {
+            metrics.record(notification.type(), notification.channel(), NotificationMetrics.Outcome.retried);
+            logAppender.append(notification.notificationId(), notification.userId(), NotificationLog.EventType.retry,
+                    Map.of("attempt", attempts, "error", error));
+        }
+    }
+
+    private NotificationChannelSender sender(ClaimedNotification notification) {
+        NotificationChannelSender sender = senders.get(notification.channel());
+        if (sender == null) {
+            throw new IllegalStateException("Sin proveedor para el canal " + notification.channel());
+        }
+        return sender;
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    // Backoff exponencial: base * 2^(intento - 1), con tope
+    private long backoffMs(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        return Math.min(maxBackoffMs, baseBackoffMs << shift);
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Vigencia por tipo: un aviso de espacio libre caduca en minutos, un pago se conserva más
+@Component
+public class NotificationExpiryPolicy {
+
+    private final Map<Notification.Type, Long> expiryMinutes = new EnumMap<>(Notification.Type.class);
+
+    public NotificationExpiryPolicy(
+            @Value("#{${smartparking.notifications.retention.expiry-minutes:{space_available: 30, reservation_confirmed: 1440, reservation_cancelled: 1440, system_alert: 4320, penalty_issued: 43200, payment_confirmed: 43200, payment_failed: 10080}}}")
+            Map<String, Long> configured) {
+        configured.forEach((type, minutes) -> expiryMinutes.put(Notification.Type.valueOf(type), minutes));
+    }
+
+    // null = no caduca
+    public LocalDateTime expiresAt(Notification.Type type, LocalDateTime createdAt) {
+        Long minutes = expiryMinutes.get(type);
+        return minutes == null || minutes <= 0 ? null : createdAt.plusMinutes(minutes);
+    }
+}
@@ -0,0 +1,125 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationInboxItemResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationInboxPageResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.notification.NotificationInboxView;
+import com.smartparking.Smartparking.repository.notification.NotificationRepository;
+import com.smartparking.Smartparking.service.notification.NotificationInboxService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationInboxServiceImpl implements NotificationInboxService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final String SEPARATOR = "|";
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadCounterStore unreadCounters;
+    private final NotificationLogAppender logAppender;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillReadAt() {
+        int updated = notificationRepository.backfillReadAt();
+        if (updated > 0) log.info("read_at completado para {} notificaciones ya leídas", updated);
+    }
+
+    @Override
+    public NotificationInboxPageResponse getInbox(String userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // Se pide una fila extra para saber si hay más páginas sin hacer COUNT
+        List<NotificationInboxView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findInboxFirstPage(userId, Limit.of(pageSize + 1));
+        } else {
+            Cursor position = decode(cursor);
+            rows = notificationRepository.findInboxPageBefore(userId, position.createdAt(), position.notificationId(), Limit.of(pageSize + 1));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationInboxView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        NotificationInboxView last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return NotificationInboxPageResponse.builder()
+                .items(page.stream().map(this::toItem).toList())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encode(last.getCreatedAt(), last.getNotificationId()) : null)
+                .build();
+    }
+
+    @Override
+    public long getUnreadCount(String userId) {
+        return unreadCounters.get(userId);
+    }
+
+    @Override
+    @Transactional
+    public void markAsRead(String userId, String notificationId) {
+        int updated = notificationRepository.markRead(notificationId, userId, LocalDateTime.now());
+        if (updated > 0) {
+            unreadCounters.read(userId, updated);
+            logAppender.append(notificationId, userId, NotificationLog.EventType.delivered, null);
+        } else if (!notificationRepository.existsByNotificationIdAndUser_UserId(notificationId, userId)) {
+            throw new ResourceNotFoundException("Notificación no encontrada");
+        }
+    }
+
+    // Un único UPDATE para todas las no leídas del usuario
+    @Override
+    @Transactional
+    public int markAllAsRead(String userId) {
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        unreadCounters.reset(userId);
+        return updated;
+    }
+
+    private record Cursor(LocalDateTime createdAt, String notificationId) {}
+
+    private static String encode(LocalDateTime createdAt, String notificationId) {
+        String raw = createdAt + SEPARATOR + notificationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, split)), raw.substring(split + 1));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+    }
+
+    private NotificationInboxItemResponse toItem(NotificationInboxView view) {
+        return NotificationInboxItemResponse.builder()
+                .notificationId(view.getNotificationId())
+                .title(view.getTitle())
+                .message(view.getMessage())
+                .type(view.getType().name())
+                .priority(view.getPriority().name())
+                .status(view.getStatus().name())
+                .channel(view.getChannel().name())
+                .createdAt(view.getCreatedAt())
+                .sentAt(view.getSentAt())
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationLaneStatsResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Configuración y SLO por carril de prioridad; la latencia se mide desde scheduled_at hasta el envío
+@Component
+public class NotificationLaneStats {
+
+    // Límites superiores (ms) del histograma de latencias
+    private static final long[] BOUNDS_MS = {250, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000, 120_000, 300_000, 600_000};
+
+    public static final class Lane {
+        final NotificationQueue.Priority priority;
+        final int weight;
+        final int concurrencyLimit;
+        final long sloMs;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder claimed = new LongAdder();
+        final LongAdder sent = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder withinSlo = new LongAdder();
+        final LongAdder latencySumMs = new LongAdder();
+        final LongAccumulator maxLatencyMs = new LongAccumulator(Math::max, 0);
+        final LongAdder[] histogram = new LongAdder[BOUNDS_MS.length + 1];
+
+        Lane(NotificationQueue.Priority priority, int weight, int concurrencyLimit, long sloMs) {
+            this.priority = priority;
+            this.weight = Math.max(1, weight);
+            this.concurrencyLimit = Math.max(1, concurrencyLimit);
+            this.sloMs = sloMs;
+            for (int i = 0; i < histogram.length; i++) histogram[i] = new LongAdder();
+        }
+
+        public NotificationQueue.Priority priority() {
+            return priority;
+        }
+
+        public int weight() {
+            return weight;
+        }
+
+        public int concurrencyLimit() {
+            return concurrencyLimit;
+        }
+    }
+
+    private final Map<NotificationQueue.Priority, Lane> lanes = new EnumMap<>(NotificationQueue.Priority.class);
+
+    public NotificationLaneStats(
+            @Value("#{${smartparking.notifications.lanes.weights:{urgent: 8, high: 4, medium: 2, low: 1}}}") Map<String, Integer> weights,
+            @Value("#{${smartparking.notifications.lanes.concurrency:{urgent: 4, high: 4, medium: 4, low: 2}}}") Map<String, Integer> concurrency,
+            @Value("#{${smartparking.notifications.lanes.slo-ms:{urgent: 5000, high: 30000, medium: 120000, low: 600000}}}") Map<String, Long> sloMs) {
+        for (NotificationQueue.Priority priority : NotificationQueue.Priority.values()) {
+            lanes.put(priority, new Lane(priority,
+                    weights.getOrDefault(priority.name(), 1),
+                    concurrency.getOrDefault(priority.name(), 1),
+                    sloMs.getOrDefault(priority.name(), 60_000L)));
+        }
+    }
+
+    // Carriles de mayor a menor prioridad
+    public List<Lane> lanes() {
+        List<Lane> ordered = new ArrayList<>(lanes.values());
+        ordered.sort((a, b) -> b.priority.compareTo(a.priority));
+        return ordered;
+    }
+
+    public int totalConcurrency() {
+        return lanes.values().stream().mapToInt(l -> l.concurrencyLimit).sum();
+    }
+
+    // Reserva hasta "wanted" envíos en vuelo para el carril; devuelve cuántos se concedieron
+    public int reserve(Lane lane, int wanted) {
+        while (true) {
+            int current = lane.inFlight.get();
+            int granted = Math.min(wanted, lane.concurrencyLimit - current);
+            if (granted <= 0) return 0;
+            if (lane.inFlight.compareAndSet(current, current + granted)) return granted;
+        }
+    }
+
+    public void release(Lane lane, int count) {
+        if (count > 0) lane.inFlight.addAndGet(-count);
+    }
+
+    public void claimed(Lane lane, int count) {
+        lane.claimed.add(count);
+    }
+
+    public void completed(Lane lane, long latencyMs, boolean success) {
+        if (!success) {
+            lane.failed.increment();
+            return;
+        }
+        long latency = Math.max(0, latencyMs);
+        lane.sent.increment();
+        lane.latencySumMs.add(latency);
+        lane.maxLatencyMs.accumulate(latency);
+        if (latency <= lane.sloMs) lane.withinSlo.increment();
+        lane.histogram[bucket(latency)].increment();
+    }
+
+    public Lane lane(NotificationQueue.Priority priority) {
+        return lanes.get(priority);
+    }
+
+    public List<NotificationLaneStatsResponse> snapshot() {
+        List<NotificationLaneStatsResponse> result = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes()) {
+            long sent = lane.sent.sum();
+            result.add(NotificationLaneStatsResponse.builder()
+                    .priority(lane.priority.name())
+                    .weight(lane.weight)
+                    .concurrencyLimit(lane.concurrencyLimit)
+                    .inFlight(lane.inFlight.get())
+                    .claimed(lane.claimed.sum())
+                    .sent(sent)
+                    .failed(lane.failed.sum())
+                    .sloMs(lane.sloMs)
+                    .sloAttainment(sent == 0 ? 1.0 : (double) lane.withinSlo.sum() / sent)
+                    .avgLatencyMs(sent == 0 ? 0.0 : (double) lane.latencySumMs.sum() / sent)
+                    .p95LatencyMs(percentile(lane, sent, 0.95))
+                    .maxLatencyMs(lane.maxLatencyMs.get())
+                    .build());
+        }
+        return result;
+    }
+
+    // Aproximado: límite superior de la cubeta donde el acumulado alcanza el percentil
+    private static long percentile(Lane lane, long total, double quantile) {
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(total * quantile);
+        long cumulative = 0;
+        for (int i = 0; i < lane.histogram.length; i++) {
+            cumulative += lane.histogram[i].sum();
+            if (cumulative >= target) {
+                return i < BOUNDS_MS.length ? BOUNDS_MS[i] : lane.maxLatencyMs.get();
+            }
+        }
+        return lane.maxLatencyMs.get();
+    }
+
+    private static int bucket(long latencyMs) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (latencyMs <= BOUNDS_MS[i]) return i;
+        }
+        return BOUNDS_MS.length;
+    }
+}
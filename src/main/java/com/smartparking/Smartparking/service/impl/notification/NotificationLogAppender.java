@@ -0,0 +1,202 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLogStatsResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.repository.notification.NotificationLogJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationLogJdbcRepository.LogEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// notification_logs fuera del camino crítico: cola acotada (muchos productores, un escritor) y lotes JDBC
+@Component
+@Slf4j
+public class NotificationLogAppender {
+
+    private final NotificationLogJdbcRepository logRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<LogEvent> queue;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private final Set<NotificationLog.EventType> lowValueTypes = EnumSet.noneOf(NotificationLog.EventType.class);
+    private final int lowValueThreshold;
+    private final long offerTimeoutMs;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder droppedLowValue = new LongAdder();
+    private final LongAdder droppedOverload = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+
+    public NotificationLogAppender(
+            NotificationLogJdbcRepository logRepository,
+            @Value("${smartparking.notifications.logs.capacity:10000}") int capacity,
+            @Value("${smartparking.notifications.logs.low-value-types:created,retry}") List<String> lowValueTypes,
+            @Value("${smartparking.notifications.logs.low-value-fill-ratio:0.75}") double lowValueFillRatio,
+            @Value("${smartparking.notifications.logs.offer-timeout-ms:50}") long offerTimeoutMs,
+            @Value("${smartparking.notifications.logs.batch-size:500}") int batchSize,
+            @Value("${smartparking.notifications.logs.flush-ms:1000}") long flushIntervalMs) {
+        this.logRepository = logRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        lowValueTypes.stream().map(String::trim).filter(t -> !t.isEmpty())
+                .forEach(t -> this.lowValueTypes.add(NotificationLog.EventType.valueOf(t)));
+        this.lowValueThreshold = (int) (capacity * lowValueFillRatio);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.execute(this::writeLoop);
+    }
+
+    public void append(String notificationId, String userId, NotificationLog.EventType type, Map<String, Object> data) {
+        LogEvent event = new LogEvent(notificationId, userId, type, data == null ? null : toJson(data), LocalDateTime.now());
+        // Dentro de una transacción el evento se publica al confirmar: la notificación ya existe y no hay eventos huérfanos
+        afterCommit(() -> enqueue(event));
+    }
+
+    public void appendAll(Collection<String> notificationIds, NotificationLog.EventType type) {
+        if (notificationIds.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        List<LogEvent> events = notificationIds.stream()
+                .map(id -> new LogEvent(id, null, type, null, now))
+                .toList();
+        afterCommit(() -> events.forEach(this::enqueue));
+    }
+
+    public NotificationLogStatsResponse getStats() {
+        long count = flushes.sum();
+        return NotificationLogStatsResponse.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queue.size() + queue.remainingCapacity())
+                .enqueued(enqueued.sum())
+                .written(written.sum())
+                .droppedLowValue(droppedLowValue.sum())
+                .droppedOverload(droppedOverload.sum())
+                .failedBatches(failedBatches.sum())
+                .flushes(count)
+                .avgFlushLatencyMs(count == 0 ? 0.0 : flushNanos.sum() / (count * 1_000_000.0))
+                .maxFlushLatencyMs(TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()))
+                .lastFlushLatencyMs(TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Quedaron {} eventos de notificación sin escribir", queue.size());
+        }
+    }
+
+    private void enqueue(LogEvent event) {
+        // Con la cola casi llena se descartan primero los eventos de poco valor
+        if (lowValueTypes.contains(event.eventType())) {
+            if (queue.size() >= lowValueThreshold || !queue.offer(event)) {
+                droppedLowValue.increment();
+                return;
+            }
+            enqueued.increment();
+            return;
+        }
+
+        // Los eventos relevantes esperan un tiempo acotado (backpressure) antes de descartarse
+        try {
+            if (queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                enqueued.increment();
+            } else {
+                droppedOverload.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedOverload.increment();
+        }
+    }
+
+    private void writeLoop() {
+        List<LogEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Al apagar se vacía lo que quede antes de salir
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<LogEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            logRepository.insertBatch(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.warn("Error escribiendo {} eventos de notificación: {}", batch.size(), e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulate(elapsed);
+            lastFlushNanos.set(elapsed);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
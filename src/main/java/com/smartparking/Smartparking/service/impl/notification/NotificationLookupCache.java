@@ -0,0 +1,163 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationCacheStatsResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+import com.smartparking.Smartparking.repository.notification.NotificationPreferenceRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caché de plantillas activas (por tipo) y de preferencias (por usuario, LRU acotado).
+// Se invalida explícitamente al editar; el TTL solo acota la desactualización entre nodos.
+@Component
+@Slf4j
+public class NotificationLookupCache {
+
+    private final NotificationTemplateRepository templateRepo;
+    private final NotificationPreferenceRepository preferenceRepo;
+    private final long ttlNanos;
+    private final int preferenceCapacity;
+
+    private final Map<NotificationTemplate.Type, Entry<Optional<NotificationTemplate>>> templates = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry<Map<NotificationPreference.NotificationType, NotificationPreference>>> preferences;
+
+    private final LongAdder templateHits = new LongAdder();
+    private final LongAdder templateMisses = new LongAdder();
+    private final LongAdder preferenceHits = new LongAdder();
+    private final LongAdder preferenceMisses = new LongAdder();
+    private final LongAdder preferenceEvictions = new LongAdder();
+
+    // Cambia con cada invalidación: una carga iniciada antes no se guarda (evita reinsertar datos viejos)
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Entry<T>(T value, long loadedAt) {}
+
+    public NotificationLookupCache(
+            NotificationTemplateRepository templateRepo,
+            NotificationPreferenceRepository preferenceRepo,
+            @Value("${smartparking.notifications.cache.ttl-ms:600000}") long ttlMs,
+            @Value("${smartparking.notifications.cache.preference-capacity:10000}") int preferenceCapacity) {
+        this.templateRepo = templateRepo;
+        this.preferenceRepo = preferenceRepo;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.preferenceCapacity = preferenceCapacity;
+        this.preferences = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<Map<NotificationPreference.NotificationType, NotificationPreference>>> eldest) {
+                boolean evict = size() > NotificationLookupCache.this.preferenceCapacity;
+                if (evict) preferenceEvictions.increment();
+                return evict;
+            }
+        };
+    }
+
+    public Optional<NotificationTemplate> getActiveTemplate(NotificationTemplate.Type type) {
+        Entry<Optional<NotificationTemplate>> entry = templates.get(type);
+        if (entry != null && !expired(entry)) {
+            templateHits.increment();
+            return entry.value();
+        }
+
+        templateMisses.increment();
+        long loadGeneration = generation.get();
+        Optional<NotificationTemplate> template = templateRepo.findByTypeAndIsActiveTrue(type);
+        if (generation.get() == loadGeneration) {
+            templates.put(type, new Entry<>(template, System.nanoTime()));
+        }
+        return template;
+    }
+
+    // Una sola consulta carga todas las preferencias del usuario
+    public Optional<NotificationPreference> getPreference(String userId, NotificationPreference.NotificationType type) {
+        Entry<Map<NotificationPreference.NotificationType, NotificationPreference>> entry;
+        synchronized (preferences) {
+            entry = preferences.get(userId);
+        }
+        if (entry != null && !expired(entry)) {
+            preferenceHits.increment();
+            return Optional.ofNullable(entry.value().get(type));
+        }
+
+        preferenceMisses.increment();
+        long loadGeneration = generation.get();
+        Map<NotificationPreference.NotificationType, NotificationPreference> byType =
+                new EnumMap<>(NotificationPreference.NotificationType.class);
+        for (NotificationPreference pref : preferenceRepo.findByUser_UserId(userId)) {
+            byType.put(pref.getNotificationType(), pref);
+        }
+        synchronized (preferences) {
+            if (generation.get() == loadGeneration) {
+                preferences.put(userId, new Entry<>(byType, System.nanoTime()));
+            }
+        }
+        return Optional.ofNullable(byType.get(type));
+    }
+
+    public void invalidatePreferences(String userId) {
+        generation.incrementAndGet();
+        synchronized (preferences) {
+            preferences.remove(userId);
+        }
+    }
+
+    public void invalidateTemplate(NotificationTemplate.Type type) {
+        generation.incrementAndGet();
+        templates.remove(type);
+    }
+
+    // Dentro de una transacción, invalida al confirmar para no recargar la versión anterior
+    public void invalidateTemplateAfterCommit(NotificationTemplate.Type type) {
+        invalidateTemplate(type);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateTemplate(type);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        templates.clear();
+        synchronized (preferences) {
+            preferences.clear();
+        }
+        log.info("Caché de plantillas y preferencias invalidada");
+    }
+
+    public NotificationCacheStatsResponse getStats() {
+        int preferenceEntries;
+        synchronized (preferences) {
+            preferenceEntries = preferences.size();
+        }
+        return NotificationCacheStatsResponse.builder()
+                .templateHits(templateHits.sum())
+                .templateMisses(templateMisses.sum())
+                .templateEntries(templates.size())
+                .preferenceHits(preferenceHits.sum())
+                .preferenceMisses(preferenceMisses.sum())
+                .preferenceEvictions(preferenceEvictions.sum())
+                .preferenceEntries(preferenceEntries)
+                .preferenceCapacity(preferenceCapacity)
+                .build();
+    }
+
+    private boolean expired(Entry<?> entry) {
+        return System.nanoTime() - entry.loadedAt() > ttlNanos;
+    }
+}
@@ -0,0 +1,173 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationMetricCounterResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationMetricsResponse;
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationMetric;
+import com.smartparking.Smartparking.repository.notification.NotificationMetricJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationMetricJdbcRepository.MetricRow;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores por (tipo, canal, resultado) y minuto de registro; un flush periódico los agrega en notification_metrics
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationMetrics {
+
+    public enum Outcome {
+        queued, deferred, digested, disabled, coalesced, no_template, sent, retried, failed
+    }
+
+    private record Key(Notification.Type type, Notification.Channel channel, Outcome outcome) {}
+
+    private static final class Counter {
+        final LongAdder total = new LongAdder();
+        // Pendiente de flush por minuto de registro (epoch-minuto): cada delta va a su periodo.
+        // Se suma y se retira siempre bajo el bloqueo de la clave (compute/remove) para no perder deltas
+        final Map<Long, LongAdder> pendingByMinute = new ConcurrentHashMap<>();
+    }
+
+    private final NotificationMetricJdbcRepository metricRepository;
+
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+    private final LocalDateTime since = LocalDateTime.now();
+    private volatile LocalDateTime lastFlushAt;
+    // Último minuto ya escrito: un registro tardío nunca reabre un minuto (ni una hora) cerrados
+    private volatile long closedThroughMinute = Long.MIN_VALUE;
+
+    // Acumulados por hora y día aún abiertos; solo los toca el hilo del flush
+    private final Map<LocalDateTime, Map<Key, Long>> hourTotals = new TreeMap<>();
+    private final Map<LocalDateTime, Map<Key, Long>> dayTotals = new TreeMap<>();
+
+    public void record(Notification.Type type, Notification.Channel channel, Outcome outcome) {
+        record(type, channel, outcome, 1);
+    }
+
+    public void record(Notification.Type type, Notification.Channel channel, Outcome outcome, long count) {
+        if (count <= 0) return;
+        Counter counter = counters.computeIfAbsent(new Key(type, channel, outcome), k -> new Counter());
+        counter.total.add(count);
+        boolean[] added = new boolean[1];
+        while (!added[0]) {
+            long minute = Math.max(epochMinute(System.currentTimeMillis()), closedThroughMinute + 1);
+            counter.pendingByMinute.compute(minute, (m, pending) -> {
+                // El flush cerró este minuto mientras tanto: se reintenta en el siguiente abierto
+                if (m <= closedThroughMinute) return pending;
+                LongAdder adder = pending != null ? pending : new LongAdder();
+                adder.add(count);
+                added[0] = true;
+                return adder;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.metrics.flush-ms:60000}")
+    public synchronized void flush() {
+        flush(LocalDateTime.now(), false);
+    }
+
+    @PreDestroy
+    public synchronized void flushOnShutdown() {
+        flush(LocalDateTime.now(), true);
+    }
+
+    public NotificationMetricsResponse snapshot() {
+        Map<String, Long> byOutcome = new LinkedHashMap<>();
+        for (Outcome outcome : Outcome.values()) byOutcome.put(outcome.name(), 0L);
+
+        List<NotificationMetricCounterResponse> rows = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> {
+            long total = counter.total.sum();
+            byOutcome.merge(key.outcome().name(), total, Long::sum);
+            rows.add(NotificationMetricCounterResponse.builder()
+                    .type(key.type().name())
+                    .channel(key.channel() != null ? key.channel().name() : null)
+                    .outcome(key.outcome().name())
+                    .total(total)
+                    .sinceLastFlush(counter.pendingByMinute.values().stream().mapToLong(LongAdder::sum).sum())
+                    .build());
+        });
+        rows.sort(Comparator.comparing(NotificationMetricCounterResponse::getType)
+                .thenComparing(NotificationMetricCounterResponse::getOutcome));
+
+        long sent = byOutcome.get(Outcome.sent.name());
+        long failed = byOutcome.get(Outcome.failed.name());
+        return NotificationMetricsResponse.builder()
+                .since(since)
+                .lastFlushAt(lastFlushAt)
+                .totalsByOutcome(byOutcome)
+                .failureRate(sent + failed == 0 ? 0.0 : (double) failed / (sent + failed))
+                .counters(rows)
+                .build();
+    }
+
+    private void flush(LocalDateTime now, boolean closeAll) {
+        long currentMinute = epochMinute(now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        List<MetricRow> rows = new ArrayList<>();
+
+        // Se cierra el minuto antes de retirar sus deltas: remove espera a cualquier compute en curso sobre la
+        // clave, y los registros posteriores ven el cierre y van al minuto siguiente
+        closedThroughMinute = Math.max(closedThroughMinute, closeAll ? currentMinute : currentMinute - 1);
+
+        // Solo minutos ya cerrados (o todos al apagar): el minuto en curso sigue recibiendo deltas
+        counters.forEach((key, counter) -> counter.pendingByMinute.keySet().forEach(epochMinute -> {
+            if (!closeAll && epochMinute > closedThroughMinute) return;
+            LongAdder pending = counter.pendingByMinute.remove(epochMinute);
+            long delta = pending != null ? pending.sum() : 0;
+            if (delta == 0) return;
+            LocalDateTime minute = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), ZoneId.systemDefault());
+            rows.add(row(key, delta, NotificationMetric.TimePeriod.minute, minute));
+            hourTotals.computeIfAbsent(minute.truncatedTo(ChronoUnit.HOURS), h -> new HashMap<>()).merge(key, delta, Long::sum);
+            dayTotals.computeIfAbsent(minute.truncatedTo(ChronoUnit.DAYS), d -> new HashMap<>()).merge(key, delta, Long::sum);
+        }));
+
+        // Las filas de hora/día se escriben al cerrar el periodo (o al apagar la aplicación)
+        close(hourTotals, NotificationMetric.TimePeriod.hour, now.truncatedTo(ChronoUnit.HOURS), closeAll, rows);
+        close(dayTotals, NotificationMetric.TimePeriod.day, now.truncatedTo(ChronoUnit.DAYS), closeAll, rows);
+
+        if (rows.isEmpty()) return;
+        try {
+            metricRepository.insertBatch(rows);
+            lastFlushAt = now;
+        } catch (Exception e) {
+            // Métricas de mejor esfuerzo: el contador vivo sigue siendo correcto aunque se pierda el lote
+            log.warn("Error guardando {} métricas de notificación: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private static void close(Map<LocalDateTime, Map<Key, Long>> totals, NotificationMetric.TimePeriod period,
+                              LocalDateTime current, boolean closeAll, List<MetricRow> rows) {
+        totals.entrySet().removeIf(entry -> {
+            if (!closeAll && !entry.getKey().isBefore(current)) return false;
+            entry.getValue().forEach((key, total) -> rows.add(row(key, total, period, entry.getKey())));
+            return true;
+        });
+    }
+
+    private static long epochMinute(long epochMillis) {
+        return epochMillis / 60_000;
+    }
+
+    private static MetricRow row(Key key, long value, NotificationMetric.TimePeriod period, LocalDateTime recordedAt) {
+        String type = key.type().name() + ":" + (key.channel() != null ? key.channel().name() : "none");
+        return new MetricRow("notifications." + key.outcome().name(), value, type, period, recordedAt);
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.repository.notification.NotificationOutboxJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationOutboxJdbcRepository.OutboxEntry;
+import com.smartparking.Smartparking.service.notification.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// Convierte registros del outbox en notificaciones encoladas, fuera del camino de la reserva
+@Component
+@ConditionalOnProperty(name = "smartparking.notifications.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class NotificationOutboxProcessor {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxJdbcRepository outboxJdbcRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long leaseMs;
+
+    public NotificationOutboxProcessor(
+            NotificationOutboxJdbcRepository outboxJdbcRepository,
+            NotificationService notificationService,
+            TransactionTemplate transactionTemplate,
+            @Value("${smartparking.notifications.outbox.batch-size:200}") int batchSize,
+            @Value("${smartparking.notifications.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${smartparking.notifications.outbox.retry-delay-ms:10000}") long retryDelayMs,
+            @Value("${smartparking.notifications.outbox.lease-ms:120000}") long leaseMs) {
+        this.outboxJdbcRepository = outboxJdbcRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.outbox.poll-ms:500}")
+    public void process() {
+        List<OutboxEntry> batch;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            batch = outboxJdbcRepository.claimBatch(batchSize, now, now.minus(leaseMs, ChronoUnit.MILLIS));
+        } catch (Exception e) {
+            log.warn("Error leyendo el outbox de notificaciones: {}", e.getMessage());
+            return;
+        }
+        if (batch.isEmpty()) return;
+
+        batch.sort(Comparator.comparing(OutboxEntry::createdAt));
+        int failed = 0;
+        for (OutboxEntry entry : batch) {
+            try {
+                // Encolar y borrar el registro en la misma transacción
+                transactionTemplate.executeWithoutResult(tx -> {
+                    notificationService.sendIfEnabled(entry.userId(), entry.type(), parse(entry.payload()));
+                    outboxJdbcRepository.delete(entry.outboxId());
+                });
+            } catch (Exception e) {
+                failed++;
+                retry(entry, e);
+            }
+        }
+
+        if (failed > 0) {
+            log.warn("Outbox: {} registros procesados, {} con error", batch.size() - failed, failed);
+        }
+    }
+
+    private void retry(OutboxEntry entry, Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (message.length() > MAX_ERROR_LENGTH) message = message.substring(0, MAX_ERROR_LENGTH);
+        try {
+            outboxJdbcRepository.scheduleRetry(entry.outboxId(), maxAttempts,
+                    LocalDateTime.now().plus(retryDelayMs * (entry.attempts() + 1), ChronoUnit.MILLIS), message);
+        } catch (Exception ex) {
+            // El lease vencido hará que se vuelva a reclamar
+            log.warn("No se pudo reprogramar el registro {} del outbox: {}", entry.outboxId(), ex.getMessage());
+        }
+    }
+
+    private Map<String, Object> parse(String payload) {
+        if (payload == null || payload.isBlank()) return Map.of();
+        try {
+            return objectMapper.readValue(payload, PAYLOAD_TYPE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Payload del outbox inválido: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.entity.notification.NotificationOutbox;
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import com.smartparking.Smartparking.repository.notification.NotificationOutboxRepository;
+import com.smartparking.Smartparking.service.notification.NotificationOutboxService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    @Transactional
+    public void append(String userId, NotificationPreference.NotificationType type, Map<String, Object> data) {
+        LocalDateTime now = LocalDateTime.now();
+
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setUserId(userId);
+        entry.setNotificationType(type);
+        entry.setPayload(toJson(data));
+        entry.setStatus(NotificationOutbox.Status.pending);
+        entry.setCreatedAt(now);
+        entry.setAvailableAt(now);
+        outboxRepository.save(entry);
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Error serializando payload del outbox: {}", e.getMessage());
+            return "{}";
+        }
+    }
+}
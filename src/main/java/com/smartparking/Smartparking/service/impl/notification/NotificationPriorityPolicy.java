@@ -0,0 +1,42 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Prioridad por tipo: una alerta del sistema o una penalidad no compite con un broadcast
+@Component
+public class NotificationPriorityPolicy {
+
+    private final Map<Notification.Type, Notification.Priority> priorities = new EnumMap<>(Notification.Type.class);
+    private final Notification.Priority broadcastDefault;
+    private final Notification.Priority digestMaxPriority;
+
+    public NotificationPriorityPolicy(
+            @Value("#{${smartparking.notifications.priority.by-type:{system_alert: 'urgent', penalty_issued: 'high', payment_failed: 'high'}}}")
+            Map<String, String> configured,
+            @Value("${smartparking.notifications.priority.broadcast-default:low}") String broadcastDefault,
+            @Value("${smartparking.notifications.digest.max-priority:medium}") String digestMaxPriority) {
+        configured.forEach((type, priority) ->
+                priorities.put(Notification.Type.valueOf(type), Notification.Priority.valueOf(priority)));
+        this.broadcastDefault = Notification.Priority.valueOf(broadcastDefault);
+        this.digestMaxPriority = Notification.Priority.valueOf(digestMaxPriority);
+    }
+
+    public Notification.Priority priorityOf(Notification.Type type) {
+        return priorities.getOrDefault(type, Notification.Priority.medium);
+    }
+
+    // Broadcasts administrativos sin prioridad explícita van al carril más bajo
+    public Notification.Priority broadcastDefault() {
+        return broadcastDefault;
+    }
+
+    // Solo lo de baja prioridad puede esperar a un resumen; high/urgent siempre sale de inmediato
+    public boolean digestEligible(Notification.Priority priority) {
+        return priority.compareTo(digestMaxPriority) <= 0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
+import com.smartparking.Smartparking.repository.notification.NotificationRetentionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+// Caducidad y limpieza de notificaciones en lotes pequeños, con pausas para que autovacuum siga el ritmo.
+// Si la base está ocupada (muchas sesiones activas) la pasada se interrumpe y se retoma en la siguiente.
+// Las pasadas corren en un hilo propio: las pausas no ocupan el pool compartido de @Scheduled.
+@Component
+@ConditionalOnProperty(name = "smartparking.notifications.retention.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class NotificationRetentionSweeper {
+
+    private final NotificationRetentionRepository retentionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationLogAppender logAppender;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMs;
+    private final int maxActiveBackends;
+    private final long notificationRetentionDays;
+    private final long queueRetentionDays;
+    private final long logRetentionDays;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean expiring = new AtomicBoolean();
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    public NotificationRetentionSweeper(
+            NotificationRetentionRepository retentionRepository,
+            TransactionTemplate transactionTemplate,
+            NotificationLogAppender logAppender,
+            @Value("${smartparking.notifications.retention.batch-size:500}") int batchSize,
+            @Value("${smartparking.notifications.retention.max-batches-per-run:40}") int maxBatchesPerRun,
+            @Value("${smartparking.notifications.retention.pause-ms:200}") long pauseMs,
+            @Value("${smartparking.notifications.retention.max-active-backends:20}") int maxActiveBackends,
+            @Value("${smartparking.notifications.retention.notification-days:90}") long notificationRetentionDays,
+            @Value("${smartparking.notifications.retention.queue-days:7}") long queueRetentionDays,
+            @Value("${smartparking.notifications.retention.log-days:30}") long logRetentionDays) {
+        this.retentionRepository = retentionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.logAppender = logAppender;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMs = pauseMs;
+        this.maxActiveBackends = maxActiveBackends;
+        this.notificationRetentionDays = notificationRetentionDays;
+        this.queueRetentionDays = queueRetentionDays;
+        this.logRetentionDays = logRetentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.retention.expire-ms:60000}")
+    public void expire() {
+        runOnWorker(expiring, this::expireNow);
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.retention.purge-ms:600000}",
+            initialDelayString = "${smartparking.notifications.retention.purge-ms:600000}")
+    public void purge() {
+        runOnWorker(purging, this::purgeNow);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Una pasada de cada tipo como máximo en cola o en curso
+    private void runOnWorker(AtomicBoolean running, Runnable pass) {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            worker.execute(() -> {
+                try {
+                    pass.run();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    private void expireNow() {
+        int expired = sweep("expiración", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> ids = transactionTemplate.execute(tx -> {
+                List<String> batch = retentionRepository.expireBatch(now, batchSize);
+                retentionRepository.cancelQueued(batch, now);
+                logAppender.appendAll(batch, NotificationLog.EventType.expired);
+                return batch;
+            });
+            return ids != null ? ids.size() : 0;
+        });
+        if (expired > 0) log.info("{} notificaciones marcadas como expiradas", expired);
+    }
+
+    private void purgeNow() {
+        LocalDateTime now = LocalDateTime.now();
+        int queue = sweep("cola", () -> retentionRepository.purgeQueueBatch(now.minusDays(queueRetentionDays), batchSize));
+        int logs = sweep("logs", () -> retentionRepository.purgeLogsBatch(now.minusDays(logRetentionDays), batchSize));
+        int notifications = sweep("notificaciones", () -> {
+            Integer deleted = transactionTemplate.execute(tx ->
+                    retentionRepository.purgeNotificationsBatch(now.minusDays(notificationRetentionDays), batchSize));
+            return deleted != null ? deleted : 0;
+        });
+
+        if (queue + logs + notifications > 0) {
+            log.info("Retención: {} notificaciones, {} filas de cola y {} logs eliminados", notifications, queue, logs);
+        }
+    }
+
+    // Repite el lote hasta vaciar, agotar el presupuesto o detectar carga alta
+    private int sweep(String phase, IntSupplier batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            try {
+                if (busy()) {
+                    log.debug("Retención ({}) pausada: base de datos ocupada", phase);
+                    break;
+                }
+                int affected = batch.getAsInt();
+                total += affected;
+                if (affected < batchSize) break;
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Error en retención ({}): {}", phase, e.getMessage());
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean busy() {
+        return maxActiveBackends > 0 && retentionRepository.activeBackends() > maxActiveBackends;
+    }
+}
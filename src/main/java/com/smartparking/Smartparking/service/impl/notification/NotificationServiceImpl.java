@@ -2,12 +2,19 @@ package com.smartparking.Smartparking.service.impl.notification;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartparking.Smartparking.dto.request.notification.BroadcastRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.NotificationCacheStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLaneStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLogStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationMetricsResponse;
 import com.smartparking.Smartparking.entity.iam.User;
 import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationLog;
 import com.smartparking.Smartparking.entity.notification.NotificationPreference;
 import com.smartparking.Smartparking.entity.notification.NotificationQueue;
 import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
 import com.smartparking.Smartparking.repository.notification.*;
+import com.smartparking.Smartparking.service.notification.NotificationBroadcastService;
 import com.smartparking.Smartparking.service.notification.NotificationService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -17,7 +24,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,8 +34,18 @@ import java.util.Optional;
 @Transactional
 public class NotificationServiceImpl implements NotificationService {
 
-    private final NotificationPreferenceRepository preferenceRepo;
-    private final NotificationTemplateRepository templateRepo;
+    private final NotificationLookupCache lookupCache;
+    private final NotificationTemplateRenderer templateRenderer;
+    private final NotificationBroadcastService broadcastService;
+    private final UnreadCounterStore unreadCounters;
+    private final NotificationExpiryPolicy expiryPolicy;
+    private final NotificationCoalescer coalescer;
+    private final NotificationMetrics metrics;
+    private final NotificationLogAppender logAppender;
+    private final QuietHoursPolicy quietHoursPolicy;
+    private final NotificationPriorityPolicy priorityPolicy;
+    private final NotificationLaneStats laneStats;
+    private final NotificationDigestBuffer digestBuffer;
     private final NotificationRepository notificationRepo;
     private final NotificationQueueRepository queueRepo;
     private final UserDeviceTokenRepository tokenRepo;
@@ -39,95 +55,126 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public void sendIfEnabled(String userId, NotificationPreference.NotificationType type, Map<String, Object> data) {
-        Optional<NotificationPreference> prefOpt = preferenceRepo
-                .findByUser_UserIdAndNotificationType(userId, type);
+        Optional<NotificationPreference> prefOpt = lookupCache.getPreference(userId, type);
+        Notification.Type notificationType = Notification.Type.valueOf(type.name());
 
         if (prefOpt.isEmpty() || !Boolean.TRUE.equals(prefOpt.get().getIsEnabled())) {
+            metrics.record(notificationType, null, NotificationMetrics.Outcome.disabled);
             log.debug("Notificación {} deshabilitada para usuario {}", type, userId);
             return;
         }
 
         NotificationPreference pref = prefOpt.get();
+        String channelStr = pref.getChannel().trim().toLowerCase(); // los valores del enum están en minúsculas
+        Notification.Channel channel = Notification.Channel.valueOf(channelStr);
 
-        // Respetar horarios silenciosos
-        if (!isWithinQuietHours(pref)) {
-            log.debug("Usuario {} en horario silencioso", userId);
-            return;
-        }
+        // En horario silencioso no se descarta: se difiere al final de la ventana
+        LocalDateTime deferUntil = quietHoursPolicy.deferUntil(
+                pref.getQuietHoursStart(), pref.getQuietHoursEnd(), LocalDateTime.now());
 
         // Buscar plantilla activa
-        NotificationTemplate template = templateRepo
-                .findByTypeAndIsActiveTrue(NotificationTemplate.Type.valueOf(type.name()))
+        NotificationTemplate template = lookupCache
+                .getActiveTemplate(NotificationTemplate.Type.valueOf(type.name()))
                 .orElse(null);
 
         if (template == null) {
+            metrics.record(notificationType, channel, NotificationMetrics.Outcome.no_template);
             log.warn("No hay plantilla activa para tipo: {}", type);
             return;
         }
 
         // Renderizar
-        String title = render(template.getTitleTemplate(), data);
-        String message = render(template.getMessageTemplate(), data);
+        NotificationTemplateRenderer.Rendered rendered = templateRenderer.render(template, data);
+        String title = rendered.title();
+        String message = rendered.message();
+
+        // Duplicados (sensor inestable, reintentos) dentro de la ventana no se encolan
+        if (!coalescer.tryAccept(userId, notificationType, NotificationCoalescer.dedupKey(data, title, message))) {
+            metrics.record(notificationType, channel, NotificationMetrics.Outcome.coalesced);
+            log.debug("Notificación {} duplicada para usuario {}, descartada", type, userId);
+            return;
+        }
+
+        // Modo resumen: lo de baja prioridad se acumula y sale en un único mensaje por ventana
+        Notification.Priority priority = priorityPolicy.priorityOf(notificationType);
+        if (Boolean.TRUE.equals(pref.getDigestEnabled()) && priorityPolicy.digestEligible(priority)) {
+            digestBuffer.add(userId, channel, pref, notificationType, title);
+            log.debug("Notificación {} agregada al resumen del usuario {}", type, userId);
+            return;
+        }
 
         // Crear notificación
         Notification notif = new Notification();
         notif.setUser(entityManager.getReference(User.class, userId));
-        String channelStr = pref.getChannel().trim().toUpperCase();
-        Notification.Channel channel = Notification.Channel.valueOf(channelStr);
         notif.setTitle(title);
         notif.setMessage(message);
-        notif.setType(Notification.Type.valueOf(type.name()));
+        notif.setType(notificationType);
         notif.setChannel(channel);
-        notif.setPriority(Notification.Priority.medium);
+        notif.setPriority(priority);
         notif.setStatus(Notification.Status.pending);
         notif.setMetadata(toJson(data));
+        notif.setExpiresAt(expiryPolicy.expiresAt(notif.getType(), notif.getCreatedAt()));
         notificationRepo.save(notif);
 
         // Encolar
         NotificationQueue queue = new NotificationQueue();
         queue.setNotification(notif);
-        queue.setPriority(NotificationQueue.Priority.medium);
+        queue.setPriority(NotificationQueue.Priority.valueOf(priority.name()));
         queue.setStatus(NotificationQueue.Status.pending);
-        queue.setScheduledAt(LocalDateTime.now());
+        queue.setScheduledAt(deferUntil != null ? deferUntil : LocalDateTime.now());
+        queue.setDeferred(deferUntil != null);
         queueRepo.save(queue);
+        unreadCounters.added(userId, 1);
+        if (deferUntil != null) {
+            metrics.record(notificationType, channel, NotificationMetrics.Outcome.deferred);
+            log.debug("Usuario {} en horario silencioso, notificación diferida hasta {}", userId, deferUntil);
+        } else {
+            metrics.record(notificationType, channel, NotificationMetrics.Outcome.queued);
+        }
+        logAppender.append(notif.getNotificationId(), userId, NotificationLog.EventType.created,
+                Map.of("channel", channel.name()));
 
         log.info("Notificación {} encolada para usuario {}", type, userId);
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // cada lote confirma en su propia transacción
     public void sendToMultipleUsers(List<String> userIds, NotificationPreference.NotificationType type, Map<String, Object> data) {
-        for (String userId : userIds) {
-            try {
-                sendIfEnabled(userId, type, data);
-            } catch (Exception e) {
-                log.error("Error enviando notificación a usuario {}: {}", userId, e.getMessage());
-            }
-        }
+        broadcastService.broadcastNow(BroadcastRequestDto.builder()
+                .userIds(userIds)
+                .type(type.name())
+                .data(data)
+                .priority(priorityPolicy.priorityOf(Notification.Type.valueOf(type.name())).name())
+                .build());
     }
 
-    // === UTILIDADES ===
+    @Override
+    public void invalidatePreferences(String userId) {
+        lookupCache.invalidatePreferences(userId);
+    }
 
-    private boolean isWithinQuietHours(NotificationPreference pref) {
-        LocalTime start = pref.getQuietHoursStart();
-        LocalTime end = pref.getQuietHoursEnd();
-        if (start == null || end == null) return true;
+    @Override
+    public NotificationCacheStatsResponse getCacheStats() {
+        return lookupCache.getStats();
+    }
 
-        LocalTime now = LocalTime.now();
-        if (start.isBefore(end)) {
-            return !(now.isAfter(start) && now.isBefore(end));
-        } else {
-            return !(now.isAfter(start) || now.isBefore(end));
-        }
+    @Override
+    public NotificationMetricsResponse getMetrics() {
+        return metrics.snapshot();
     }
 
-    private String render(String template, Map<String, Object> data) {
-        String result = template;
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            result = result.replace("{{" + entry.getKey() + "}}", String.valueOf(entry.getValue()));
-        }
-        return result;
+    @Override
+    public NotificationLogStatsResponse getLogStats() {
+        return logAppender.getStats();
+    }
+
+    @Override
+    public List<NotificationLaneStatsResponse> getLaneStats() {
+        return laneStats.snapshot();
     }
 
+    // === UTILIDADES ===
+
     private String toJson(Map<String, Object> data) {
         try {
             return objectMapper.writeValueAsString(data);
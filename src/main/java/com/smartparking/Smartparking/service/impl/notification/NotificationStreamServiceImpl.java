@@ -0,0 +1,268 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationInboxItemResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationStreamStatsResponse;
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.service.notification.NotificationChannelSender;
+import com.smartparking.Smartparking.service.notification.NotificationStreamService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Canal in_app en vivo: una conexión SSE por sesión de cliente; la presencia vive solo en memoria
+@Service
+@Order(0)
+@Slf4j
+public class NotificationStreamServiceImpl implements NotificationStreamService, NotificationChannelSender {
+
+    private static final int MAX_SESSION_ID_LENGTH = 64;
+
+    // userId -> sessionId -> conexión; el dispatcher decide sin consultar la base de datos
+    private final Map<String, Map<String, Session>> sessionsByUser = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final int maxSessionsPerUser;
+    private final long emitterTimeoutMs;
+
+    private final LongAdder deliveredLive = new LongAdder();
+    private final LongAdder inboxFallback = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
+    public NotificationStreamServiceImpl(
+            @Value("${smartparking.notifications.stream.sender-threads:4}") int senderThreads,
+            @Value("${smartparking.notifications.stream.buffer-size:100}") int bufferSize,
+            @Value("${smartparking.notifications.stream.max-sessions-per-user:5}") int maxSessionsPerUser,
+            @Value("${smartparking.notifications.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.senders = Executors.newFixedThreadPool(senderThreads);
+        this.bufferSize = bufferSize;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    @Override
+    public SseEmitter connect(String userId, String sessionId) {
+        String id = sessionId == null || sessionId.isBlank() || sessionId.length() > MAX_SESSION_ID_LENGTH
+                ? UUID.randomUUID().toString()
+                : sessionId;
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Session session = new Session(userId, id, emitter);
+
+        emitter.onCompletion(() -> remove(session));
+        emitter.onTimeout(() -> remove(session));
+        emitter.onError(e -> remove(session));
+
+        List<Session> evicted = new ArrayList<>();
+        sessionsByUser.compute(userId, (k, sessions) -> {
+            Map<String, Session> current = sessions != null ? sessions : new ConcurrentHashMap<>();
+            // Una reconexión de la misma sesión reemplaza la conexión anterior
+            Session previous = current.put(id, session);
+            if (previous != null) evicted.add(previous);
+            while (current.size() > maxSessionsPerUser) {
+                Session oldest = current.values().stream()
+                        .filter(s -> s != session)
+                        .min(Comparator.comparing(s -> s.connectedAt))
+                        .orElse(null);
+                if (oldest == null || !current.remove(oldest.sessionId, oldest)) break;
+                evicted.add(oldest);
+            }
+            return current;
+        });
+        evicted.forEach(s -> s.emitter.complete());
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data(id));
+        } catch (IOException e) {
+            remove(session);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public boolean isConnected(String userId) {
+        return sessionsByUser.containsKey(userId);
+    }
+
+    @Override
+    public boolean supports(Notification.Channel channel) {
+        return channel == Notification.Channel.in_app;
+    }
+
+    // La fila ya está en notifications: sin conexión abierta la bandeja de entrada es el respaldo
+    @Override
+    public void send(ClaimedNotification notification) {
+        Map<String, Session> sessions = sessionsByUser.get(notification.userId());
+        if (sessions == null || sessions.isEmpty()) {
+            inboxFallback.increment();
+            return;
+        }
+
+        NotificationInboxItemResponse item = NotificationInboxItemResponse.builder()
+                .notificationId(notification.notificationId())
+                .title(notification.title())
+                .message(notification.message())
+                .type(notification.type() != null ? notification.type().name() : null)
+                .priority(notification.priority() != null ? notification.priority().name() : null)
+                .status(Notification.Status.sent.name())
+                .channel(Notification.Channel.in_app.name())
+                // Mismo created_at que la bandeja de entrada (cursor y orden); scheduled_at es la hora de liberación
+                .createdAt(notification.createdAt())
+                .sentAt(LocalDateTime.now())
+                .build();
+        sessions.values().forEach(s -> s.offer(item));
+        deliveredLive.increment();
+    }
+
+    @Override
+    public NotificationStreamStatsResponse getStats() {
+        int sessions = 0;
+        for (Map<String, Session> byId : sessionsByUser.values()) sessions += byId.size();
+        return NotificationStreamStatsResponse.builder()
+                .connectedUsers(sessionsByUser.size())
+                .sessions(sessions)
+                .deliveredLive(deliveredLive.sum())
+                .inboxFallback(inboxFallback.sum())
+                .dropped(dropped.sum())
+                .disconnects(disconnects.sum())
+                .build();
+    }
+
+    // Detecta conexiones muertas que el contenedor aún no ha cerrado
+    @Scheduled(fixedDelayString = "${smartparking.notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        sessionsByUser.values().forEach(sessions -> sessions.values().forEach(Session::ping));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        sessionsByUser.values().forEach(sessions -> sessions.values().forEach(s -> s.emitter.complete()));
+        sessionsByUser.clear();
+    }
+
+    private void remove(Session session) {
+        sessionsByUser.computeIfPresent(session.userId, (k, sessions) -> {
+            sessions.remove(session.sessionId, session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    // Cada sesión tiene su propio buffer acotado; un cliente lento no frena al dispatcher
+    private final class Session {
+        private final String userId;
+        private final String sessionId;
+        private final SseEmitter emitter;
+        private final LocalDateTime connectedAt = LocalDateTime.now();
+        private final ArrayDeque<NotificationInboxItemResponse> backlog = new ArrayDeque<>();
+        private boolean resync;
+        private boolean ping;
+        private boolean draining;
+
+        private Session(String userId, String sessionId, SseEmitter emitter) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+        }
+
+        private void offer(NotificationInboxItemResponse item) {
+            synchronized (this) {
+                if (backlog.size() >= bufferSize) {
+                    // Demasiado atrasado: el cliente debe recargar la bandeja de entrada
+                    dropped.add(backlog.size() + 1);
+                    backlog.clear();
+                    resync = true;
+                } else {
+                    backlog.add(item);
+                }
+            }
+            schedule();
+        }
+
+        private void ping() {
+            synchronized (this) {
+                ping = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining) return;
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<NotificationInboxItemResponse> chunk;
+                boolean sendResync;
+                boolean sendPing;
+                synchronized (this) {
+                    if (backlog.isEmpty() && !resync && !ping) {
+                        draining = false;
+                        return;
+                    }
+                    chunk = new ArrayList<>(backlog);
+                    backlog.clear();
+                    sendResync = resync;
+                    sendPing = ping;
+                    resync = false;
+                    ping = false;
+                }
+
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name("resync").data("reload"));
+                    }
+                    for (NotificationInboxItemResponse item : chunk) {
+                        emitter.send(SseEmitter.event()
+                                .name("notification")
+                                .id(item.getNotificationId())
+                                .data(item, MediaType.APPLICATION_JSON));
+                    }
+                    if (sendPing && chunk.isEmpty() && !sendResync) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Sesión {} del usuario {} desconectada: {}", sessionId, userId, e.getMessage());
+                    disconnects.increment();
+                    remove(this);
+                    synchronized (this) {
+                        dropped.add(backlog.size() + chunk.size());
+                        backlog.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Plantillas compiladas por templateId; una edición (updatedAt distinto) fuerza la recompilación
+@Component
+public class NotificationTemplateRenderer {
+
+    private final Map<String, Compiled> compiled = new ConcurrentHashMap<>();
+
+    public record Rendered(String title, String message) {}
+
+    private record Compiled(LocalDateTime version, String titleSource, String messageSource,
+                            CompiledTemplate title, CompiledTemplate message) {
+
+        // Filas antiguas sin updatedAt: se compara el texto fuente
+        boolean matches(NotificationTemplate template) {
+            if (template.getUpdatedAt() != null) return template.getUpdatedAt().equals(version);
+            return version == null
+                    && Objects.equals(titleSource, template.getTitleTemplate())
+                    && Objects.equals(messageSource, template.getMessageTemplate());
+        }
+    }
+
+    public Rendered render(NotificationTemplate template, Map<String, Object> data) {
+        Compiled entry = compiled.get(template.getTemplateId());
+        if (entry == null || !entry.matches(template)) {
+            entry = new Compiled(
+                    template.getUpdatedAt(),
+                    template.getTitleTemplate(),
+                    template.getMessageTemplate(),
+                    CompiledTemplate.compile(template.getTitleTemplate()),
+                    CompiledTemplate.compile(template.getMessageTemplate()));
+            compiled.put(template.getTemplateId(), entry);
+        }
+        return new Rendered(entry.title().render(data), entry.message().render(data));
+    }
+}
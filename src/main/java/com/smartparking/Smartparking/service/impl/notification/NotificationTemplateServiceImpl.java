@@ -0,0 +1,74 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.NotificationTemplateRequestDto;
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.notification.NotificationTemplateRepository;
+import com.smartparking.Smartparking.service.notification.NotificationTemplateService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationTemplateServiceImpl implements NotificationTemplateService {
+
+    private final NotificationTemplateRepository templateRepository;
+    private final NotificationLookupCache lookupCache;
+
+    @Override
+    public List<NotificationTemplate> getAllTemplates() {
+        return templateRepository.findAll();
+    }
+
+    @Override
+    @Transactional
+    public NotificationTemplate createTemplate(NotificationTemplateRequestDto request) {
+        NotificationTemplate template = new NotificationTemplate();
+        template.setCreatedAt(LocalDateTime.now());
+        return save(template, request);
+    }
+
+    @Override
+    @Transactional
+    public NotificationTemplate updateTemplate(String templateId, NotificationTemplateRequestDto request) {
+        NotificationTemplate template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new ResourceNotFoundException("Plantilla no encontrada"));
+
+        // Si cambia de tipo, la caché del tipo anterior también queda obsoleta
+        lookupCache.invalidateTemplateAfterCommit(template.getType());
+        return save(template, request);
+    }
+
+    private NotificationTemplate save(NotificationTemplate template, NotificationTemplateRequestDto request) {
+        NotificationTemplate.Type type = parseType(request.getType());
+        template.setName(request.getName());
+        template.setType(type);
+        template.setTitleTemplate(request.getTitleTemplate());
+        template.setMessageTemplate(request.getMessageTemplate());
+        template.setIsActive(request.getIsActive() == null || request.getIsActive());
+        template.setUpdatedAt(LocalDateTime.now());
+        template = templateRepository.save(template);
+
+        // Solo una plantilla activa por tipo
+        if (Boolean.TRUE.equals(template.getIsActive())) {
+            templateRepository.deactivateOthers(type, template.getTemplateId());
+        }
+
+        lookupCache.invalidateTemplateAfterCommit(type);
+        return template;
+    }
+
+    private NotificationTemplate.Type parseType(String type) {
+        try {
+            return NotificationTemplate.Type.valueOf(type.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tipo de plantilla inválido: " + type);
+        }
+    }
+}
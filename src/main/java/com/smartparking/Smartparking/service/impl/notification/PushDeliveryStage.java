@@ -0,0 +1,310 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.repository.notification.UserDeviceTokenRepository;
+import com.smartparking.Smartparking.service.notification.BatchedChannelSender;
+import com.smartparking.Smartparking.service.notification.PushProvider;
+import com.smartparking.Smartparking.service.notification.PushProvider.MulticastResult;
+import com.smartparking.Smartparking.service.notification.PushProvider.PushMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Etapa de entrega push: agrupa por contenido, envía en multicast hasta el límite del proveedor,
+// respeta un token bucket por proveedor y desactiva en bloque los tokens que el proveedor rechaza
+@Component
+@Order(0)
+@Slf4j
+public class PushDeliveryStage implements BatchedChannelSender {
+
+    private static final String STAGE_TIMEOUT = "Tiempo de espera en la etapa push agotado";
+
+    // deadline (nanoTime): pasado ese instante la etapa ya no envía; el watchdog del dispatcher aún no ha saltado
+    private record Pending(ClaimedNotification notification, Consumer<String> onComplete, long deadline) {}
+
+    private record PayloadKey(Notification.Type type, String title, String message) {}
+
+    // Resultado acumulado de una notificación repartida entre varios tokens/lotes
+    private static final class Delivery {
+        final Pending pending;
+        int delivered;
+        boolean routed;
+        boolean expired;
+        String lastError;
+
+        Delivery(Pending pending) {
+            this.pending = pending;
+        }
+    }
+
+    private record DeviceToken(String token, UserDeviceToken.Platform platform) {}
+
+    private final UserDeviceTokenRepository tokenRepository;
+    private final List<PushProvider> providers;
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+    private final BlockingQueue<Pending> buffer;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final int maxBatch;
+    private final long lingerMs;
+    private final long maxQueueNanos;
+    private volatile boolean running = true;
+
+    public PushDeliveryStage(
+            UserDeviceTokenRepository tokenRepository,
+            ObjectProvider<PushProvider> providers,
+            @Value("#{${smartparking.notifications.push.rate-per-second:{stub: 1000}}}") Map<String, Double> ratePerSecond,
+            @Value("${smartparking.notifications.push.default-rate-per-second:100}") double defaultRatePerSecond,
+            @Value("${smartparking.notifications.push.buffer-size:10000}") int bufferSize,
+            @Value("${smartparking.notifications.push.max-batch:1000}") int maxBatch,
+            @Value("${smartparking.notifications.push.linger-ms:50}") long lingerMs,
+            @Value("${smartparking.notifications.push.max-queue-ms:20000}") long maxQueueMs,
+            @Value("${smartparking.notifications.dispatcher.send-timeout-ms:30000}") long sendTimeoutMs) {
+        if (maxQueueMs >= sendTimeoutMs) {
+            // Si la etapa enviara después del timeout del dispatcher, la notificación se reintentaría y llegaría dos veces
+            throw new IllegalStateException("push.max-queue-ms (" + maxQueueMs
+                    + ") debe ser menor que dispatcher.send-timeout-ms (" + sendTimeoutMs + ")");
+        }
+        this.tokenRepository = tokenRepository;
+        this.providers = providers.orderedStream().toList();
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.maxBatch = maxBatch;
+        this.lingerMs = lingerMs;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMs);
+
+        // Un cubo por proveedor: cada token de un multicast consume un permiso de la cuota
+        for (PushProvider provider : this.providers) {
+            double rate = ratePerSecond.getOrDefault(provider.name(), defaultRatePerSecond);
+            buckets.put(provider.name(), new TokenBucket(rate, rate));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.execute(this::deliveryLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean supports(Notification.Channel channel) {
+        return channel == Notification.Channel.push;
+    }
+
+    @Override
+    public boolean offer(ClaimedNotification notification, Consumer<String> onComplete) {
+        return running && buffer.offer(new Pending(notification, onComplete, System.nanoTime() + maxQueueNanos));
+    }
+
+    // Envío síncrono: pasa por la misma etapa y espera su resultado
+    @Override
+    public void send(ClaimedNotification notification) throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if (!offer(notification, result::complete)) {
+            throw new IllegalStateException("Etapa push saturada");
+        }
+        String error = result.get();
+        if (error != null) throw new IllegalStateException(error);
+    }
+
+    private void deliveryLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Breve espera para juntar más notificaciones con el mismo contenido (broadcasts)
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatch) {
+                    buffer.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) break;
+                    Pending next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                deliver(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                batch.forEach(p -> p.onComplete().accept("Etapa push detenida"));
+            } catch (Exception e) {
+                log.warn("Error en la etapa push: {}", e.getMessage());
+                batch.forEach(p -> p.onComplete().accept(e.getMessage()));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Pending> batch) throws InterruptedException {
+        Map<String, List<DeviceToken>> tokensByUser = loadTokens(batch);
+
+        // contenido -> proveedor -> token -> entregas que lo usan
+        Map<PayloadKey, Map<PushProvider, Map<String, List<Delivery>>>> groups = new LinkedHashMap<>();
+        List<Delivery> deliveries = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            Delivery delivery = new Delivery(pending);
+            deliveries.add(delivery);
+
+            ClaimedNotification n = pending.notification();
+            if (System.nanoTime() - pending.deadline() > 0) {
+                delivery.expired = true; // esperó demasiado en el buffer
+                continue;
+            }
+
+            List<DeviceToken> tokens = tokensByUser.getOrDefault(n.userId(), List.of());
+
+            PayloadKey key = new PayloadKey(n.type(), n.title(), n.message());
+            for (DeviceToken token : tokens) {
+                PushProvider provider = providerFor(token.platform());
+                if (provider == null) {
+                    log.debug("Sin proveedor push para {}", token.platform());
+                    continue;
+                }
+                groups.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(provider, p -> new LinkedHashMap<>())
+                        .computeIfAbsent(token.token(), t -> new ArrayList<>())
+                        .add(delivery);
+                delivery.routed = true;
+            }
+        }
+
+        Set<String> invalidTokens = new HashSet<>();
+        int requests = 0;
+        for (Map.Entry<PayloadKey, Map<PushProvider, Map<String, List<Delivery>>>> group : groups.entrySet()) {
+            PayloadKey key = group.getKey();
+            PushMessage message = new PushMessage(key.title(), key.message(), Map.of("type", key.type().name()));
+
+            for (Map.Entry<PushProvider, Map<String, List<Delivery>>> byProvider : group.getValue().entrySet()) {
+                PushProvider provider = byProvider.getKey();
+                List<String> tokens = new ArrayList<>(byProvider.getValue().keySet());
+                int limit = Math.max(1, provider.multicastLimit());
+
+                TokenBucket bucket = buckets.get(provider.name());
+
+                for (int from = 0; from < tokens.size(); from += limit) {
+                    List<String> chunk = tokens.subList(from, Math.min(tokens.size(), from + limit));
+                    bucket.acquire(chunk.size());
+
+                    // La espera del cubo puede agotar el plazo: solo salen los tokens con alguna entrega vigente
+                    List<String> live = liveTokens(chunk, byProvider.getValue());
+                    bucket.refund(chunk.size() - live.size());
+                    if (live.isEmpty()) continue;
+
+                    requests++;
+                    sendChunk(provider, message, live, byProvider.getValue(), invalidTokens);
+                }
+            }
+        }
+
+        for (Delivery delivery : deliveries) {
+            delivery.pending.onComplete().accept(outcome(delivery));
+        }
+
+        if (!invalidTokens.isEmpty()) {
+            try {
+                int deactivated = tokenRepository.deactivateTokens(invalidTokens);
+                log.info("{} tokens push inválidos desactivados", deactivated);
+            } catch (Exception e) {
+                log.warn("Error desactivando tokens push: {}", e.getMessage());
+            }
+        }
+        log.debug("Push: {} notificaciones en {} llamadas multicast", batch.size(), requests);
+    }
+
+    private static String outcome(Delivery delivery) {
+        if (delivery.delivered > 0) return null;
+        if (delivery.expired) return STAGE_TIMEOUT;
+        // Sin ningún dispositivo utilizable no tiene sentido reintentar: queda en la bandeja de entrada
+        if (!delivery.routed) return null;
+        // Enrutada pero sin error ni entrega: todos sus tokens caducaron esperando al cubo
+        return delivery.lastError != null ? delivery.lastError : STAGE_TIMEOUT;
+    }
+
+    private static List<String> liveTokens(List<String> chunk, Map<String, List<Delivery>> deliveriesByToken) {
+        long now = System.nanoTime();
+        List<String> live = new ArrayList<>(chunk.size());
+        for (String token : chunk) {
+            for (Delivery delivery : deliveriesByToken.get(token)) {
+                if (now - delivery.pending.deadline() <= 0) {
+                    live.add(token);
+                    break;
+                }
+            }
+        }
+        return live;
+    }
+
+    private void sendChunk(PushProvider provider, PushMessage message, List<String> chunk,
+                           Map<String, List<Delivery>> deliveriesByToken, Set<String> invalidTokens) {
+        MulticastResult result;
+        try {
+            result = provider.sendMulticast(message, chunk);
+        } catch (Exception e) {
+            String error = "[" + provider.name() + "] " + e.getMessage();
+            chunk.forEach(token -> deliveriesByToken.get(token).forEach(d -> d.lastError = error));
+            return;
+        }
+
+        for (String token : chunk) {
+            List<Delivery> deliveries = deliveriesByToken.get(token);
+            if (result.invalidTokens().contains(token)) {
+                invalidTokens.add(token);
+                deliveries.forEach(d -> d.lastError = "Token push inválido");
+            } else if (result.failedTokens().containsKey(token)) {
+                String error = result.failedTokens().get(token);
+                deliveries.forEach(d -> d.lastError = error);
+            } else {
+                deliveries.forEach(d -> d.delivered++);
+            }
+        }
+    }
+
+    // Una sola consulta para todos los usuarios del lote
+    private Map<String, List<DeviceToken>> loadTokens(List<Pending> batch) {
+        Set<String> userIds = new HashSet<>();
+        batch.forEach(p -> userIds.add(p.notification().userId()));
+
+        Map<String, List<DeviceToken>> tokensByUser = new HashMap<>();
+        for (Object[] row : tokenRepository.findActiveTokens(userIds)) {
+            tokensByUser.computeIfAbsent((String) row[0], u -> new ArrayList<>())
+                    .add(new DeviceToken((String) row[1], (UserDeviceToken.Platform) row[2]));
+        }
+        return tokensByUser;
+    }
+
+    private PushProvider providerFor(UserDeviceToken.Platform platform) {
+        for (PushProvider provider : providers) {
+            if (provider.supports(platform)) return provider;
+        }
+        return null;
+    }
+}
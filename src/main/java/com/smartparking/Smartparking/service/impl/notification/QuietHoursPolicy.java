@@ -0,0 +1,41 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Lo que cae en horario silencioso se difiere al final de la ventana, con jitter para no concentrar envíos
+@Component
+public class QuietHoursPolicy {
+
+    private final long jitterMs;
+
+    public QuietHoursPolicy(@Value("${smartparking.notifications.quiet-hours.jitter-ms:900000}") long jitterMs) {
+        this.jitterMs = jitterMs;
+    }
+
+    // null = fuera del horario silencioso, se envía ya
+    public LocalDateTime deferUntil(LocalTime start, LocalTime end, LocalDateTime now) {
+        LocalDateTime quietEnd = quietEnd(start, end, now);
+        if (quietEnd == null) return null;
+        long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs) : 0;
+        return quietEnd.plusNanos(jitter * 1_000_000);
+    }
+
+    static LocalDateTime quietEnd(LocalTime start, LocalTime end, LocalDateTime now) {
+        if (start == null || end == null || start.equals(end)) return null;
+
+        LocalTime time = now.toLocalTime();
+        if (start.isBefore(end)) {
+            // Ventana dentro del mismo día (p. ej. 13:00-15:00)
+            return time.isAfter(start) && time.isBefore(end) ? now.toLocalDate().atTime(end) : null;
+        }
+        // Ventana que cruza la medianoche (p. ej. 22:00-07:00)
+        if (time.isAfter(start)) return now.toLocalDate().plusDays(1).atTime(end);
+        if (time.isBefore(end)) return now.toLocalDate().atTime(end);
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Índice en memoria zona -> cubeta horaria -> suscripciones ordenadas por antigüedad.
+// Un espacio liberado solo recorre la cubeta de la hora actual de su zona (y la de "cualquier zona").
+@Component
+public class SpaceSubscriptionIndex {
+
+    private static final String ANY_ZONE = "*";
+
+    public record Entry(String subscriptionId, String userId, String zone, Integer level,
+                        LocalDateTime windowStart, LocalDateTime windowEnd, LocalDateTime createdAt) {}
+
+    private static final Comparator<Entry> FIFO = Comparator
+            .comparing(Entry::createdAt)
+            .thenComparing(Entry::subscriptionId);
+
+    private final Map<String, Map<Long, NavigableSet<Entry>>> byZone = new ConcurrentHashMap<>();
+    private final Map<String, Entry> active = new ConcurrentHashMap<>();
+
+    public void add(Entry entry) {
+        if (active.putIfAbsent(entry.subscriptionId(), entry) != null) return;
+
+        Map<Long, NavigableSet<Entry>> buckets = byZone.computeIfAbsent(zoneKey(entry.zone()), z -> new ConcurrentHashMap<>());
+        for (long hour = hour(entry.windowStart()); hour <= hour(entry.windowEnd()); hour++) {
+            buckets.computeIfAbsent(hour, h -> new ConcurrentSkipListSet<>(FIFO)).add(entry);
+        }
+    }
+
+    public void remove(String subscriptionId) {
+        Entry entry = active.remove(subscriptionId);
+        if (entry != null) unlink(entry);
+    }
+
+    // Reclama atómicamente las K suscripciones más antiguas que cubren este instante
+    public List<Entry> claim(String zone, Integer level, LocalDateTime at, int limit) {
+        long hour = hour(at);
+        Iterator<Entry> zoned = iterator(zoneKey(zone), hour);
+        Iterator<Entry> anyZone = zone == null ? emptyIterator() : iterator(ANY_ZONE, hour);
+
+        List<Entry> claimed = new ArrayList<>(limit);
+        Entry nextZoned = advance(zoned);
+        Entry nextAny = advance(anyZone);
+        while (claimed.size() < limit && (nextZoned != null || nextAny != null)) {
+            // Mezcla de ambas listas respetando el orden de llegada
+            Entry candidate;
+            if (nextAny == null || (nextZoned != null && FIFO.compare(nextZoned, nextAny) <= 0)) {
+                candidate = nextZoned;
+                nextZoned = advance(zoned);
+            } else {
+                candidate = nextAny;
+                nextAny = advance(anyZone);
+            }
+
+            if (!covers(candidate, level, at)) continue;
+            if (active.remove(candidate.subscriptionId(), candidate)) {
+                unlink(candidate);
+                claimed.add(candidate);
+            }
+        }
+        return claimed;
+    }
+
+    // Quita las suscripciones cuya ventana terminó y las cubetas vacías
+    public int evictEnded(LocalDateTime now) {
+        int evicted = 0;
+        for (Entry entry : active.values()) {
+            if (entry.windowEnd().isBefore(now) && active.remove(entry.subscriptionId(), entry)) {
+                unlink(entry);
+                evicted++;
+            }
+        }
+        long currentHour = hour(now);
+        byZone.values().forEach(buckets -> buckets.keySet().removeIf(h -> h < currentHour));
+        return evicted;
+    }
+
+    public int size() {
+        return active.size();
+    }
+
+    private void unlink(Entry entry) {
+        Map<Long, NavigableSet<Entry>> buckets = byZone.get(zoneKey(entry.zone()));
+        if (buckets == null) return;
+        for (long hour = hour(entry.windowStart()); hour <= hour(entry.windowEnd()); hour++) {
+            NavigableSet<Entry> set = buckets.get(hour);
+            if (set != null) set.remove(entry);
+        }
+    }
+
+    private Iterator<Entry> iterator(String zoneKey, long hour) {
+        Map<Long, NavigableSet<Entry>> buckets = byZone.get(zoneKey);
+        NavigableSet<Entry> set = buckets != null ? buckets.get(hour) : null;
+        return set != null ? set.iterator() : emptyIterator();
+    }
+
+    private static boolean covers(Entry entry, Integer level, LocalDateTime at) {
+        return !at.isBefore(entry.windowStart()) && !at.isAfter(entry.windowEnd())
+                && (entry.level() == null || Objects.equals(entry.level(), level));
+    }
+
+    private static Entry advance(Iterator<Entry> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static Iterator<Entry> emptyIterator() {
+        return Collections.emptyIterator();
+    }
+
+    private static String zoneKey(String zone) {
+        return zone == null ? ANY_ZONE : zone;
+    }
+
+    private static long hour(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.HOURS).getEpochSecond() / 3600;
+    }
+}
@@ -0,0 +1,225 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.SpaceSubscriptionRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.SpaceSubscriptionResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+import com.smartparking.Smartparking.entity.notification.SpaceSubscription;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.notification.SpaceSubscriptionRepository;
+import com.smartparking.Smartparking.service.impl.notification.SpaceSubscriptionIndex.Entry;
+import com.smartparking.Smartparking.service.notification.NotificationOutboxService;
+import com.smartparking.Smartparking.service.notification.SpaceSubscriptionService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@Slf4j
+public class SpaceSubscriptionServiceImpl implements SpaceSubscriptionService {
+
+    private final SpaceSubscriptionRepository subscriptionRepository;
+    private final SpaceSubscriptionIndex index;
+    private final NotificationOutboxService outboxService;
+    private final TransactionTemplate requiresNew;
+    private final int notifyFirst;
+    private final int maxActivePerUser;
+    private final Duration maxWindow;
+
+    // Un solo hilo: las liberaciones se atienden en orden y sin bloquear el commit que las originó
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor();
+
+    public SpaceSubscriptionServiceImpl(
+            SpaceSubscriptionRepository subscriptionRepository,
+            SpaceSubscriptionIndex index,
+            NotificationOutboxService outboxService,
+            PlatformTransactionManager transactionManager,
+            @Value("${smartparking.notifications.subscriptions.notify-first:3}") int notifyFirst,
+            @Value("${smartparking.notifications.subscriptions.max-active-per-user:5}") int maxActivePerUser,
+            @Value("${smartparking.notifications.subscriptions.max-window-hours:24}") long maxWindowHours) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.index = index;
+        this.outboxService = outboxService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.notifyFirst = notifyFirst;
+        this.maxActivePerUser = maxActivePerUser;
+        this.maxWindow = Duration.ofHours(maxWindowHours);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        subscriptionRepository.findByStatusAndWindowEndAfter(SpaceSubscription.Status.active, LocalDateTime.now())
+                .forEach(s -> index.add(toEntry(s)));
+        log.info("{} suscripciones de espacio activas cargadas", index.size());
+    }
+
+    @Override
+    public SpaceSubscriptionResponse subscribe(String userId, SpaceSubscriptionRequestDto request) {
+        if (!request.getFrom().isBefore(request.getTo())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El inicio de la ventana debe ser anterior al fin");
+        }
+        if (Duration.between(request.getFrom(), request.getTo()).compareTo(maxWindow) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La ventana no puede exceder " + maxWindow.toHours() + " horas");
+        }
+        if (subscriptionRepository.countByUserIdAndStatus(userId, SpaceSubscription.Status.active) >= maxActivePerUser) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Máximo de " + maxActivePerUser + " suscripciones activas alcanzado");
+        }
+
+        SpaceSubscription subscription = new SpaceSubscription();
+        subscription.setUserId(userId);
+        subscription.setZone(request.getZone() == null || request.getZone().isBlank()
+                ? null : request.getZone().trim().toUpperCase());
+        subscription.setLevel(request.getLevel());
+        subscription.setWindowStart(request.getFrom());
+        subscription.setWindowEnd(request.getTo());
+        subscription.setStatus(SpaceSubscription.Status.active);
+        subscription.setCreatedAt(LocalDateTime.now());
+        SpaceSubscription saved = subscriptionRepository.save(subscription);
+
+        afterCommit(() -> index.add(toEntry(saved)));
+        return toResponse(saved);
+    }
+
+    @Override
+    public List<SpaceSubscriptionResponse> getActiveSubscriptions(String userId) {
+        return subscriptionRepository.findByUserIdAndStatusOrderByWindowStartAsc(userId, SpaceSubscription.Status.active)
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    public void cancel(String userId, String subscriptionId) {
+        SpaceSubscription subscription = subscriptionRepository.findBySubscriptionIdAndUserId(subscriptionId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Suscripción no encontrada"));
+        if (subscription.getStatus() != SpaceSubscription.Status.active) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La suscripción ya no está activa");
+        }
+
+        index.remove(subscriptionId);
+        subscription.setStatus(SpaceSubscription.Status.cancelled);
+        subscriptionRepository.save(subscription);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceStatusChanged(SpaceStatusChangedEvent event) {
+        // Solo interesa la transición a "available" (cancelación, expiración o fin de reserva)
+        if (event.status() != ParkingSpace.SpaceStatus.available
+                || event.previousStatus() == ParkingSpace.SpaceStatus.available
+                || index.size() == 0) return;
+
+        try {
+            matcher.execute(() -> notifyWaiting(event));
+        } catch (RejectedExecutionException e) {
+            log.warn("Matcher de suscripciones no disponible para espacio {}", event.spaceId());
+        }
+    }
+
+    // Solo los K suscriptores más antiguos: evita una estampida de reservas sobre un único espacio
+    private void notifyWaiting(SpaceStatusChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Entry> claimed = index.claim(event.zone(), event.level(), now, notifyFirst);
+        if (claimed.isEmpty()) return;
+
+        try {
+            requiresNew.executeWithoutResult(tx -> {
+                subscriptionRepository.markNotified(claimed.stream().map(Entry::subscriptionId).toList(), event.spaceId(), now);
+                for (Entry entry : claimed) {
+                    outboxService.append(entry.userId(), NotificationPreference.NotificationType.space_available,
+                            notificationData(event));
+                }
+            });
+            log.info("Espacio {} liberado: {} suscriptores notificados", event.code(), claimed.size());
+        } catch (Exception e) {
+            // Se devuelven al índice para la próxima liberación
+            claimed.forEach(index::add);
+            log.warn("Error notificando suscriptores del espacio {}: {}", event.spaceId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.notifications.subscriptions.expire-ms:60000}")
+    public void expireEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        int evicted = index.evictEnded(now);
+        try {
+            int expired = subscriptionRepository.expireEnded(now);
+            if (expired > 0 || evicted > 0) {
+                log.debug("Suscripciones de espacio expiradas: {} (índice: {})", expired, evicted);
+            }
+        } catch (Exception e) {
+            log.warn("Error expirando suscripciones de espacio: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdown();
+    }
+
+    private static Map<String, Object> notificationData(SpaceStatusChangedEvent event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("spaceId", event.spaceId());
+        data.put("spaceCode", event.code());
+        data.put("zone", event.zone() != null ? event.zone() : "");
+        data.put("level", event.level() != null ? event.level() : "");
+        // Un usuario con varias suscripciones recibe un solo aviso por espacio
+        data.put("dedupKey", "space:" + event.spaceId());
+        return data;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Entry toEntry(SpaceSubscription s) {
+        return new Entry(s.getSubscriptionId(), s.getUserId(), s.getZone(), s.getLevel(),
+                s.getWindowStart(), s.getWindowEnd(), s.getCreatedAt());
+    }
+
+    private SpaceSubscriptionResponse toResponse(SpaceSubscription s) {
+        return SpaceSubscriptionResponse.builder()
+                .subscriptionId(s.getSubscriptionId())
+                .zone(s.getZone())
+                .level(s.getLevel())
+                .from(s.getWindowStart())
+                .to(s.getWindowEnd())
+                .status(s.getStatus().name())
+                .createdAt(s.getCreatedAt())
+                .notifiedAt(s.getNotifiedAt())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
+import com.smartparking.Smartparking.service.notification.PushProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Proveedor local para desarrollo y pruebas: no sale a la red; los tokens con prefijo "invalid" se rechazan
+@Component
+@ConditionalOnProperty(name = "smartparking.notifications.push.stub.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StubPushProvider implements PushProvider {
+
+    private static final String INVALID_PREFIX = "invalid";
+
+    private final int multicastLimit;
+
+    public StubPushProvider(@Value("${smartparking.notifications.push.stub.multicast-limit:500}") int multicastLimit) {
+        this.multicastLimit = multicastLimit;
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public boolean supports(UserDeviceToken.Platform platform) {
+        return true;
+    }
+
+    @Override
+    public int multicastLimit() {
+        return multicastLimit;
+    }
+
+    @Override
+    public MulticastResult sendMulticast(PushMessage message, List<String> tokens) {
+        Set<String> invalid = new HashSet<>();
+        for (String token : tokens) {
+            if (token.startsWith(INVALID_PREFIX)) invalid.add(token);
+        }
+        log.info("[push:stub] \"{}\" a {} tokens ({} inválidos)", message.title(), tokens.size(), invalid.size());
+        return new MulticastResult(invalid, Map.of());
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+// Token bucket sencillo: "ratePerSecond" tokens por segundo con ráfagas de hasta "capacity"
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    // Toma hasta "max" tokens y devuelve cuántos obtuvo (0 si el cubo está vacío)
+    public synchronized int acquireUpTo(int max) {
+        refill();
+        int granted = (int) Math.min(max, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    public synchronized boolean tryAcquire() {
+        return acquireUpTo(1) == 1;
+    }
+
+    // Bloquea hasta obtener "permits" tokens (en tramos si superan la capacidad)
+    public void acquire(int permits) throws InterruptedException {
+        int remaining = permits;
+        while (remaining > 0) {
+            remaining -= acquireUpTo(remaining);
+            if (remaining > 0) {
+                double wanted = Math.min(remaining, capacity);
+                Thread.sleep(Math.max(1, (long) (wanted / ratePerNano / 1_000_000)));
+            }
+        }
+    }
+
+    // Devuelve los tokens no usados
+    public synchronized void refund(int unused) {
+        if (unused > 0) tokens = Math.min(capacity, tokens + unused);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
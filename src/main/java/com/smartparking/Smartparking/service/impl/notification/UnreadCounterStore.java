@@ -0,0 +1,90 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.repository.notification.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Contador de no leídas por usuario. Se carga desde la BD en la primera consulta y luego se mantiene
+// con incrementos (al encolar) y decrementos (al leer). El TTL vuelve a la BD para corregir desvíos
+// (otros nodos, carreras entre la carga y un alta concurrente).
+@Component
+public class UnreadCounterStore {
+
+    private final NotificationRepository notificationRepository;
+    private final int capacity;
+    private final long ttlNanos;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        final AtomicLong unread;
+        final long loadedAt = System.nanoTime();
+
+        Counter(long unread) {
+            this.unread = new AtomicLong(unread);
+        }
+    }
+
+    public UnreadCounterStore(
+            NotificationRepository notificationRepository,
+            @Value("${smartparking.notifications.unread.capacity:50000}") int capacity,
+            @Value("${smartparking.notifications.unread.ttl-ms:300000}") long ttlMs) {
+        this.notificationRepository = notificationRepository;
+        this.capacity = capacity;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public long get(String userId) {
+        Counter counter = counters.get(userId);
+        if (counter != null && System.nanoTime() - counter.loadedAt <= ttlNanos) {
+            return Math.max(0, counter.unread.get());
+        }
+
+        long unread = notificationRepository.countByUser_UserIdAndReadAtIsNullAndStatusNot(userId, Notification.Status.expired);
+        if (counter != null || counters.size() < capacity) {
+            counters.put(userId, new Counter(unread)); // lleno: se sigue respondiendo desde la BD
+        }
+        return unread;
+    }
+
+    // Los cambios se aplican al confirmar la transacción que creó o leyó las notificaciones
+    public void added(String userId, int count) {
+        afterCommit(() -> adjust(userId, count));
+    }
+
+    public void read(String userId, int count) {
+        afterCommit(() -> adjust(userId, -count));
+    }
+
+    public void reset(String userId) {
+        afterCommit(() -> {
+            Counter counter = counters.get(userId);
+            if (counter != null) counter.unread.set(0);
+        });
+    }
+
+    private void adjust(String userId, int delta) {
+        Counter counter = counters.get(userId);
+        if (counter != null) counter.unread.addAndGet(delta); // sin contador cargado, la BD ya lo refleja
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
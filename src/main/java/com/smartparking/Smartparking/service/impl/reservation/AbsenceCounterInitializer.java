@@ -0,0 +1,28 @@
+package com.smartparking.Smartparking.service.impl.reservation;
+
+import com.smartparking.Smartparking.entity.penalty.AbsenceCounter;
+import com.smartparking.Smartparking.repository.penalty.AbsenceCounterJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+// Migración única de absence_counters: corre al crear el contexto (después de que Hibernate actualice el
+// esquema y antes de que arranquen @Scheduled y el servidor web), porque el upsert depende del índice único
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class AbsenceCounterInitializer {
+
+    private final AbsenceCounterJdbcRepository absenceCounterJdbcRepository;
+
+    @PostConstruct
+    public void consolidate() {
+        int removed = absenceCounterJdbcRepository.consolidateDuplicates(AbsenceCounter.DEFAULT_MAX_STRIKES);
+        if (removed > 0) {
+            log.info("{} contadores de ausencias duplicados fusionados", removed);
+        }
+    }
+}
@@ -15,20 +15,24 @@ import com.smartparking.Smartparking.entity.penalty.Suspension;
 import com.smartparking.Smartparking.entity.reservation.Reservation;
 import com.smartparking.Smartparking.entity.space_iot.ArrivalEvent;
 import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.penalty.SuspensionChangedEvent;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
 import com.smartparking.Smartparking.exception.ResourceNotFoundException;
 import com.smartparking.Smartparking.exception.BadRequestException;
 import com.smartparking.Smartparking.repository.UserRepository;
-import com.smartparking.Smartparking.repository.penalty.AbsenceCounterRepository;
+import com.smartparking.Smartparking.repository.penalty.AbsenceCounterJdbcRepository;
+import com.smartparking.Smartparking.repository.penalty.AbsenceCounterJdbcRepository.CounterState;
 import com.smartparking.Smartparking.repository.penalty.AbsenceRepository;
 import com.smartparking.Smartparking.repository.penalty.PenaltyEventRepository;
 import com.smartparking.Smartparking.repository.penalty.SuspensionRepository;
 import com.smartparking.Smartparking.repository.reservation.ReservationRepository;
 import com.smartparking.Smartparking.repository.space_iot.ArrivalEventRepository;
 import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
-import com.smartparking.Smartparking.service.notification.NotificationService;
+import com.smartparking.Smartparking.service.notification.NotificationOutboxService;
 import com.smartparking.Smartparking.service.reservation.ReservationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -53,13 +57,15 @@ public class ReservationServiceImpl implements ReservationService {
     private final ParkingSpaceRepository parkingSpaceRepository;
     private final UserRepository userRepository;
     private final ArrivalEventRepository arrivalEventRepository;
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final AbsenceRepository absenceRepository;
-    private final AbsenceCounterRepository absenceCounterRepository;
+    private final AbsenceCounterJdbcRepository absenceCounterJdbcRepository;
     private final PenaltyEventRepository penaltyEventRepository;
     private final SuspensionRepository suspensionRepository;
+    private final SuspensionRegistry suspensionRegistry;
 
 
     private static final BigDecimal COST_PER_HOUR = new BigDecimal("2.50");
@@ -68,6 +74,14 @@ public class ReservationServiceImpl implements ReservationService {
     @Transactional
     public ReservationResponse createReservation(ReservationRequestDto request) {
 
+        // 0. Usuario suspendido: se rechaza antes de cualquier consulta
+        LocalDateTime suspendedUntil = suspensionRegistry.suspendedUntil(request.getUserId());
+        if (suspendedUntil != null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, suspendedUntil.equals(LocalDateTime.MAX)
+                    ? "Usuario suspendido: no puede realizar reservas"
+                    : "Usuario suspendido hasta " + suspendedUntil.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+        }
+
         // 1. Validar usuario
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
@@ -111,9 +125,11 @@ public class ReservationServiceImpl implements ReservationService {
         reservation = reservationRepository.save(reservation);
 
         // 5. Actualizar estado del espacio
+        ParkingSpace.SpaceStatus previousStatus = space.getStatus();
         space.setStatus(ParkingSpace.SpaceStatus.reserved);
         space.setCurrentReservationId(reservation.getReservationId());
         parkingSpaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus, reservation));
 
         // 6. Respuesta
         return ReservationResponse.builder()
@@ -247,9 +263,11 @@ public class ReservationServiceImpl implements ReservationService {
 
         // Liberar espacio
         ParkingSpace space = reservation.getParkingSpace();
+        ParkingSpace.SpaceStatus previousStatus = space.getStatus();
         space.setStatus(ParkingSpace.SpaceStatus.available);
         space.setCurrentReservationId(null);
         parkingSpaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
 
         reservation = reservationRepository.save(reservation);
 
@@ -258,7 +276,7 @@ public class ReservationServiceImpl implements ReservationService {
                 "reason", request.getReason() != null ? request.getReason() : "No especificado"
         );
 
-        notificationService.sendIfEnabled(
+        notificationOutboxService.append(
                 userId,
                 NotificationPreference.NotificationType.reservation_cancelled,
                 data
@@ -294,6 +312,9 @@ public class ReservationServiceImpl implements ReservationService {
 
         reservation = reservationRepository.save(reservation);
 
+        ParkingSpace space = reservation.getParkingSpace();
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, space.getStatus(), reservation));
+
         // NOTIFICACIÓN: Reserva confirmada
         Map<String, Object> data = Map.of(
                 "spaceCode", reservation.getParkingSpace().getCode(),
@@ -301,7 +322,7 @@ public class ReservationServiceImpl implements ReservationService {
                 "date", reservation.getStartTime().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))
         );
 
-        notificationService.sendIfEnabled(
+        notificationOutboxService.append(
                 userId,
                 NotificationPreference.NotificationType.reservation_confirmed,
                 data
@@ -333,7 +354,11 @@ public class ReservationServiceImpl implements ReservationService {
         // Opcional: registrar arrival event
         // arrivalEventService.create(reservation, now);
 
-        return reservationRepository.save(reservation);
+        reservation = reservationRepository.save(reservation);
+
+        ParkingSpace space = reservation.getParkingSpace();
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, space.getStatus(), reservation));
+        return reservation;
     }
 
     @Override
@@ -354,9 +379,11 @@ public class ReservationServiceImpl implements ReservationService {
             res.setCompletedAt(LocalDateTime.now());
 
             // 2. Liberar espacio
+            ParkingSpace.SpaceStatus previousStatus = space.getStatus();
             space.setStatus(ParkingSpace.SpaceStatus.available);
             space.setCurrentReservationId(null);
             parkingSpaceRepository.save(space);
+            eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
 
             // 3. Registrar ausencia
             Absence absence = new Absence();
@@ -366,23 +393,10 @@ public class ReservationServiceImpl implements ReservationService {
             absenceRepository.save(absence);
 
             // 4. Actualizar contador
-            AbsenceCounter counter = absenceCounterRepository.findByUserId(userId)
-                    .orElseGet(() -> {
-                        AbsenceCounter c = new AbsenceCounter();
-                        c.setUserId(userId);
-                        c.setAbsenceCount(0);
-                        c.setStrikeCount(0);
-                        c.setMaxStrikes(3);
-                        return c;
-                    });
-
-            counter.setAbsenceCount(counter.getAbsenceCount() + 1);
-            counter.setStrikeCount(counter.getStrikeCount() + 1);
-            counter.setLastUpdated(LocalDateTime.now());
-            absenceCounterRepository.save(counter);
+            CounterState counter = absenceCounterJdbcRepository.increment(userId, AbsenceCounter.DEFAULT_MAX_STRIKES, LocalDateTime.now());
 
             // 5. Penalización si max strikes
-            if (counter.getStrikeCount() >= counter.getMaxStrikes()) {
+            if (counter.strikeCount() >= counter.maxStrikes()) {
                 PenaltyEvent penalty = new PenaltyEvent();
                 penalty.setUserId(userId);
                 penalty.setEventType("ABSENCE_PENALTY");
@@ -396,17 +410,18 @@ public class ReservationServiceImpl implements ReservationService {
                 suspension.setEndDate(LocalDateTime.now().plusDays(3)); // 3 días de suspensión
                 suspension.setStatus(Suspension.Status.active);
                 suspensionRepository.save(suspension);
+                eventPublisher.publishEvent(SuspensionChangedEvent.of(suspension));
             }
 
             // 6. Notificación
             Map<String, Object> data = Map.of(
                     "spaceCode", space.getCode(),
-                    "strikeCount", counter.getStrikeCount(),
-                    "maxStrikes", counter.getMaxStrikes(),
+                    "strikeCount", counter.strikeCount(),
+                    "maxStrikes", counter.maxStrikes(),
                     "reason", "Reserva expirada (no confirmada a tiempo)"
             );
 
-            notificationService.sendIfEnabled(
+            notificationOutboxService.append(
                     userId,
                     NotificationPreference.NotificationType.penalty_issued,
                     data
@@ -452,13 +467,14 @@ public class ReservationServiceImpl implements ReservationService {
         arrivalEventRepository.save(arrival);
 
         reservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, space.getStatus(), reservation));
 
         Map<String, Object> data = Map.of(
                 "spaceCode", reservation.getParkingSpace().getCode(),
                 "message", "¡Tu sesión ha comenzado!"
         );
 
-        notificationService.sendIfEnabled(
+        notificationOutboxService.append(
                 reservation.getUser().getUserId(),
                 NotificationPreference.NotificationType.system_alert,
                 data
@@ -494,23 +510,10 @@ public class ReservationServiceImpl implements ReservationService {
         absenceRepository.save(absence);
 
         // 2. Actualizar contador
-        AbsenceCounter counter = absenceCounterRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    AbsenceCounter c = new AbsenceCounter();
-                    c.setUserId(userId);
-                    c.setAbsenceCount(0);
-                    c.setStrikeCount(0);
-                    c.setMaxStrikes(3);
-                    return c;
-                });
-
-        counter.setAbsenceCount(counter.getAbsenceCount() + 1);
-        counter.setStrikeCount(counter.getStrikeCount() + 1);
-        counter.setLastUpdated(now);
-        absenceCounterRepository.save(counter);
+        CounterState counter = absenceCounterJdbcRepository.increment(userId, AbsenceCounter.DEFAULT_MAX_STRIKES, now);
 
         // 3. Penalización
-        if (counter.getStrikeCount() >= counter.getMaxStrikes()) {
+        if (counter.strikeCount() >= counter.maxStrikes()) {
             PenaltyEvent penalty = new PenaltyEvent();
             penalty.setUserId(userId);
             penalty.setEventType("ABSENCE_PENALTY");
@@ -524,6 +527,7 @@ public class ReservationServiceImpl implements ReservationService {
             suspension.setEndDate(now.plusDays(3));
             suspension.setStatus(Suspension.Status.active);
             suspensionRepository.save(suspension);
+            eventPublisher.publishEvent(SuspensionChangedEvent.of(suspension));
         }
 
         // 4. Expirar reserva
@@ -532,19 +536,21 @@ public class ReservationServiceImpl implements ReservationService {
         reservationRepository.save(reservation);
 
         // 5. Liberar espacio
+        ParkingSpace.SpaceStatus previousStatus = space.getStatus();
         space.setStatus(ParkingSpace.SpaceStatus.available);
         space.setCurrentReservationId(null);
         parkingSpaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
 
         // 6. Notificación
         Map<String, Object> data = Map.of(
                 "spaceCode", space.getCode(),
-                "strikeCount", counter.getStrikeCount(),
-                "maxStrikes", counter.getMaxStrikes(),
+                "strikeCount", counter.strikeCount(),
+                "maxStrikes", counter.maxStrikes(),
                 "reason", "No llegaste a tiempo al espacio"
         );
 
-        notificationService.sendIfEnabled(
+        notificationOutboxService.append(
                 userId,
                 NotificationPreference.NotificationType.penalty_issued,
                 data
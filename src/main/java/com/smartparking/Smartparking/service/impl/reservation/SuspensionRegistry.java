@@ -0,0 +1,130 @@
+package com.smartparking.Smartparking.service.impl.reservation;
+
+import com.smartparking.Smartparking.entity.penalty.Suspension;
+import com.smartparking.Smartparking.event.penalty.SuspensionChangedEvent;
+import com.smartparking.Smartparking.repository.penalty.SuspensionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Usuarios con una suspensión vigente: createReservation la consulta en O(1) sin ir a la base de datos
+@Component
+@Slf4j
+public class SuspensionRegistry {
+
+    // Suspensión sin fecha de fin
+    private static final LocalDateTime INDEFINITE = LocalDateTime.MAX;
+
+    private record Entry(LocalDateTime until, long seenAt) {}
+
+    private final SuspensionRepository suspensionRepository;
+    private final long overlapMs;
+
+    private final Map<String, Entry> suspended = new ConcurrentHashMap<>();
+    private volatile LocalDateTime syncedUntil;
+
+    // start_date se fija antes del commit: el solape debe superar la transacción más larga que crea suspensiones
+    public SuspensionRegistry(
+            SuspensionRepository suspensionRepository,
+            @Value("${smartparking.suspensions.sync-overlap-ms:150000}") long overlapMs) {
+        this.suspensionRepository = suspensionRepository;
+        this.overlapMs = overlapMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+        log.info("{} usuarios suspendidos cargados", suspended.size());
+    }
+
+    // Fecha de fin de la suspensión vigente, o null si el usuario puede reservar
+    public LocalDateTime suspendedUntil(String userId) {
+        Entry entry = suspended.get(userId);
+        if (entry == null) return null;
+        if (entry.until().isAfter(LocalDateTime.now())) return entry.until();
+        suspended.remove(userId, entry); // terminó; la reconciliación la marca como completed
+        return null;
+    }
+
+    public int size() {
+        return suspended.size();
+    }
+
+    // Cambios de este nodo, visibles en cuanto confirma la transacción
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSuspensionChanged(SuspensionChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        if (event.status() != Suspension.Status.active
+                || (event.endDate() != null && !event.endDate().isAfter(now))) {
+            suspended.remove(event.userId());
+            return;
+        }
+        if (event.startDate() != null && event.startDate().isAfter(now)) return; // la recoge el sync al empezar
+        put(event.userId(), event.endDate());
+    }
+
+    // Suspensiones creadas por otros nodos; la ventana retrocede sync-overlap-ms para ver los commits tardíos
+    @Scheduled(fixedDelayString = "${smartparking.suspensions.sync-ms:2000}")
+    public void sync() {
+        LocalDateTime since = syncedUntil;
+        if (since == null) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : suspensionRepository.findStartedBetween(
+                Suspension.Status.active, since.minusNanos(overlapMs * 1_000_000), now)) {
+            put((String) row[0], (LocalDateTime) row[1]);
+        }
+        syncedUntil = now;
+    }
+
+    // Cierra las suspensiones terminadas y recarga el conjunto completo (también cubre levantamientos manuales)
+    @Scheduled(fixedDelayString = "${smartparking.suspensions.reconcile-ms:300000}",
+            initialDelayString = "${smartparking.suspensions.reconcile-ms:300000}")
+    public synchronized void reconcile() {
+        long startedAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        int completed = suspensionRepository.completeEnded(Suspension.Status.active, Suspension.Status.completed, now);
+        if (completed > 0) {
+            log.info("{} suspensiones finalizadas", completed);
+        }
+
+        List<Object[]> rows = suspensionRepository.findInForce(Suspension.Status.active, now);
+        Map<String, LocalDateTime> fresh = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            fresh.merge((String) row[0], untilOf((LocalDateTime) row[1]), this::later);
+        }
+
+        // Lo que llegó por evento durante la recarga se conserva aunque la consulta no lo viera
+        suspended.entrySet().removeIf(e -> !fresh.containsKey(e.getKey()) && e.getValue().seenAt() < startedAt);
+        fresh.forEach((userId, until) -> suspended.compute(userId, (k, current) ->
+                current != null && current.seenAt() >= startedAt
+                        ? new Entry(later(current.until(), until), current.seenAt())
+                        : new Entry(until, System.nanoTime())));
+        if (syncedUntil == null) syncedUntil = now;
+    }
+
+    private void put(String userId, LocalDateTime endDate) {
+        LocalDateTime until = untilOf(endDate);
+        suspended.merge(userId, new Entry(until, System.nanoTime()),
+                (current, next) -> new Entry(later(current.until(), next.until()), next.seenAt()));
+    }
+
+    private static LocalDateTime untilOf(LocalDateTime endDate) {
+        return endDate != null ? endDate : INDEFINITE;
+    }
+
+    private LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
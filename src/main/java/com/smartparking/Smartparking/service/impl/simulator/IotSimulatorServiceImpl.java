@@ -0,0 +1,329 @@
+package com.smartparking.Smartparking.service.impl.simulator;
+
+import com.smartparking.Smartparking.dto.request.simulator.SimulationRequestDto;
+import com.smartparking.Smartparking.dto.request.space_iot.SensorReadingRequestDto;
+import com.smartparking.Smartparking.dto.response.simulator.SimulationReportResponse;
+import com.smartparking.Smartparking.entity.space_iot.IotDevice;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+import com.smartparking.Smartparking.event.space_iot.SensorAssignedEvent;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.repository.space_iot.IotDeviceRepository;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import com.smartparking.Smartparking.service.simulator.IotSimulatorService;
+import com.smartparking.Smartparking.service.space_iot.SensorReadingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Simulador de dispositivos IoT: solo se activa con smartparking.simulator.enabled=true
+@Service
+@ConditionalOnProperty(name = "smartparking.simulator.enabled", havingValue = "true")
+@Slf4j
+public class IotSimulatorServiceImpl implements IotSimulatorService {
+
+    private static final double FLOOR_CM = 220.0;   // espacio libre: distancia al suelo
+    private static final double VEHICLE_CM = 35.0;  // espacio ocupado: distancia al techo del vehículo
+    private static final long TICK_MS = 10;
+    private static final int MAX_SAMPLES = 1_000_000;
+
+    private final IotDeviceRepository iotDeviceRepository;
+    private final SensorRepository sensorRepository;
+    private final ParkingSpaceRepository parkingSpaceRepository;
+    private final SensorReadingService sensorReadingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int workerThreads;
+
+    private volatile SimulationRun current;
+
+    public IotSimulatorServiceImpl(
+            IotDeviceRepository iotDeviceRepository,
+            SensorRepository sensorRepository,
+            ParkingSpaceRepository parkingSpaceRepository,
+            SensorReadingService sensorReadingService,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${smartparking.simulator.worker-threads:8}") int workerThreads) {
+        this.iotDeviceRepository = iotDeviceRepository;
+        this.sensorRepository = sensorRepository;
+        this.parkingSpaceRepository = parkingSpaceRepository;
+        this.sensorReadingService = sensorReadingService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.workerThreads = workerThreads;
+    }
+
+    @Override
+    public synchronized SimulationReportResponse start(SimulationRequestDto request) {
+        if (current != null && current.running) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Ya hay una simulación en curso");
+        }
+
+        List<SimulatedSensor> sensors = provision(request.getDevices(), request.getSensorsPerDevice());
+        SimulationRun run = new SimulationRun(request, sensors);
+        current = run;
+        run.start();
+
+        log.info("Simulación iniciada: {} dispositivos, {} sensores, {} lecturas/s",
+                request.getDevices(), sensors.size(), request.getReadingsPerSecond());
+        return run.report();
+    }
+
+    @Override
+    public synchronized SimulationReportResponse stop() {
+        SimulationRun run = current;
+        if (run == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No hay simulación");
+        }
+        run.stop();
+        return run.report();
+    }
+
+    @Override
+    public SimulationReportResponse report() {
+        SimulationRun run = current;
+        if (run == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No hay simulación");
+        }
+        return run.report();
+    }
+
+    // Latencia de extremo a extremo: emisión de la lectura -> cambio confirmado de ParkingSpace.status
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceStatusChanged(SpaceStatusChangedEvent event) {
+        SimulationRun run = current;
+        if (run == null) return;
+
+        Long emittedAt = run.pendingTransitions.remove(event.spaceId());
+        if (emittedAt != null) {
+            run.recordLatency(System.nanoTime() - emittedAt);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        SimulationRun run = current;
+        if (run != null) run.stop();
+    }
+
+    // Crea (o reutiliza) dispositivos, espacios y sensores SIM*
+    private List<SimulatedSensor> provision(int devices, int sensorsPerDevice) {
+        return transactionTemplate.execute(tx -> {
+            List<SimulatedSensor> result = new ArrayList<>(devices * sensorsPerDevice);
+
+            for (int d = 1; d <= devices; d++) {
+                int deviceNumber = d;
+                String name = String.format("SIM-DEV-%04d", d);
+                IotDevice device = iotDeviceRepository.findByName(name).orElseGet(() -> {
+                    IotDevice created = new IotDevice();
+                    created.setName(name);
+                    created.setIpAddress(String.format("10.%d.%d.1", deviceNumber / 256, deviceNumber % 256));
+                    created.setMacAddress(String.format("02:00:00:%02X:%02X:00", deviceNumber / 256, deviceNumber % 256));
+                    return iotDeviceRepository.save(created);
+                });
+
+                for (int s = 1; s <= sensorsPerDevice; s++) {
+                    String code = String.format("SIM%04d%02d", d, s);
+                    ParkingSpace space = parkingSpaceRepository.findByCode(code).orElseGet(() -> {
+                        ParkingSpace created = new ParkingSpace();
+                        created.setCode(code);
+                        created.setStatus(ParkingSpace.SpaceStatus.available);
+                        created.setLastUpdated(LocalDateTime.now());
+                        return parkingSpaceRepository.save(created);
+                    });
+
+                    Sensor sensor = sensorRepository.findByParkingSpace_SpaceId(space.getSpaceId()).orElseGet(() -> {
+                        Sensor created = new Sensor();
+                        created.setParkingSpace(space);
+                        created.setIotDevice(device);
+                        created.setState(Sensor.SensorState.active);
+                        Sensor saved = sensorRepository.save(created);
+                        eventPublisher.publishEvent(SensorAssignedEvent.of(saved));
+                        return saved;
+                    });
+
+                    result.add(new SimulatedSensor(sensor.getSensorId(), space.getSpaceId()));
+                }
+            }
+            return result;
+        });
+    }
+
+    private static final class SimulatedSensor {
+        private final String sensorId;
+        private final String spaceId;
+        private boolean occupied;
+        private long nextChangeNanos;
+
+        private SimulatedSensor(String sensorId, String spaceId) {
+            this.sensorId = sensorId;
+            this.spaceId = spaceId;
+        }
+    }
+
+    private final class SimulationRun {
+        private final SimulationRequestDto request;
+        private final List<SimulatedSensor> sensors;
+        private final Map<String, Long> pendingTransitions = new ConcurrentHashMap<>();
+        private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        private final ThreadPoolExecutor workers;
+
+        private final AtomicLong readingsSent = new AtomicLong();
+        private final AtomicLong readingsFailed = new AtomicLong();
+        private final AtomicLong transitionsEmitted = new AtomicLong();
+        private final AtomicInteger sampleCount = new AtomicInteger();
+        // Escrito por los hilos del listener y leído por report(): AtomicLongArray da la visibilidad
+        private final AtomicLongArray samples = new AtomicLongArray(MAX_SAMPLES);
+
+        private final long startedNanos = System.nanoTime();
+        private final long endNanos;
+        private volatile boolean running = true;
+        private volatile long stoppedNanos;
+
+        // Solo los usa el hilo del ticker
+        private double budget;
+        private int cursor;
+
+        private SimulationRun(SimulationRequestDto request, List<SimulatedSensor> sensors) {
+            this.request = request;
+            this.sensors = sensors;
+            this.endNanos = startedNanos + TimeUnit.SECONDS.toNanos(request.getDurationSeconds());
+            this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(10_000), new ThreadPoolExecutor.CallerRunsPolicy());
+
+            long now = System.nanoTime();
+            for (SimulatedSensor sensor : sensors) {
+                sensor.nextChangeNanos = now + sampleDelay(request.getMeanVacantSeconds());
+            }
+        }
+
+        private void start() {
+            ticker.scheduleAtFixedRate(this::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private void tick() {
+            long now = System.nanoTime();
+            if (!running || now >= endNanos) {
+                stop();
+                return;
+            }
+
+            budget += request.getReadingsPerSecond() * (TICK_MS / 1000.0);
+            while (budget >= 1) {
+                budget -= 1;
+                SimulatedSensor sensor = sensors.get(cursor);
+                cursor = (cursor + 1) % sensors.size();
+                emit(sensor, now);
+            }
+        }
+
+        private void emit(SimulatedSensor sensor, long now) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            // Llegadas y salidas con tiempos exponenciales
+            if (now >= sensor.nextChangeNanos) {
+                sensor.occupied = !sensor.occupied;
+                sensor.nextChangeNanos = now + sampleDelay(sensor.occupied
+                        ? request.getMeanOccupiedSeconds()
+                        : request.getMeanVacantSeconds());
+                pendingTransitions.put(sensor.spaceId, System.nanoTime());
+                transitionsEmitted.incrementAndGet();
+            }
+
+            double base = sensor.occupied ? VEHICLE_CM : FLOOR_CM;
+            SensorReadingRequestDto reading = SensorReadingRequestDto.builder()
+                    .distanceCm(base + random.nextGaussian() * request.getNoiseCm())
+                    .build();
+
+            // Mismo servicio que hay detrás de POST /api/v1/iot/sensors/{sensorId}/readings, sin la capa HTTP
+            workers.execute(() -> {
+                try {
+                    sensorReadingService.ingest(sensor.sensorId, reading);
+                    readingsSent.incrementAndGet();
+                } catch (Exception e) {
+                    readingsFailed.incrementAndGet();
+                }
+            });
+        }
+
+        private long sampleDelay(int meanSeconds) {
+            double u = ThreadLocalRandom.current().nextDouble();
+            return (long) (-Math.log(1 - u) * TimeUnit.SECONDS.toNanos(meanSeconds));
+        }
+
+        private void recordLatency(long nanos) {
+            int index = sampleCount.getAndIncrement();
+            if (index < MAX_SAMPLES) samples.set(index, Math.max(1, nanos));
+        }
+
+        private synchronized void stop() {
+            if (!running) return;
+            running = false;
+            stoppedNanos = System.nanoTime();
+            ticker.shutdown();
+            workers.shutdown();
+            log.info("Simulación finalizada: {} lecturas enviadas, {} fallidas",
+                    readingsSent.get(), readingsFailed.get());
+        }
+
+        private SimulationReportResponse report() {
+            int count = Math.min(sampleCount.get(), MAX_SAMPLES);
+            // Un índice ya reservado puede no estar escrito todavía (0): se omite
+            long[] sorted = new long[count];
+            int filled = 0;
+            for (int i = 0; i < count; i++) {
+                long nanos = samples.get(i);
+                if (nanos > 0) sorted[filled++] = nanos;
+            }
+            sorted = Arrays.copyOf(sorted, filled);
+            Arrays.sort(sorted);
+
+            long end = running ? System.nanoTime() : stoppedNanos;
+            return SimulationReportResponse.builder()
+                    .running(running)
+                    .devices(request.getDevices())
+                    .sensors(sensors.size())
+                    .elapsedSeconds(TimeUnit.NANOSECONDS.toSeconds(end - startedNanos))
+                    .readingsSent(readingsSent.get())
+                    .readingsFailed(readingsFailed.get())
+                    .transitionsEmitted(transitionsEmitted.get())
+                    .transitionsObserved(filled)
+                    .p50Ms(percentile(sorted, 0.50))
+                    .p95Ms(percentile(sorted, 0.95))
+                    .p99Ms(percentile(sorted, 0.99))
+                    .maxMs(filled == 0 ? 0 : sorted[filled - 1] / 1_000_000.0)
+                    .build();
+        }
+
+        private double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.DeviceConnectionResponse;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.space_iot.IotDeviceRepository;
+import com.smartparking.Smartparking.repository.space_iot.IotDeviceSyncRepository;
+import com.smartparking.Smartparking.service.space_iot.DeviceHeartbeatService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Service
+@Slf4j
+public class DeviceHeartbeatServiceImpl implements DeviceHeartbeatService {
+
+    private final IotDeviceRepository iotDeviceRepository;
+    private final IotDeviceSyncRepository iotDeviceSyncRepository;
+    private final long timeoutNanos;
+
+    // Tabla en memoria: índice de dispositivo -> último heartbeat (System.nanoTime, 0 = nunca)
+    private final Map<String, Integer> indexByDevice = new ConcurrentHashMap<>();
+    private final String[] deviceIds;
+    private final AtomicLongArray lastSeen;
+    private final AtomicIntegerArray connected;
+    private volatile int size;
+
+    // Último estado persistido; solo lo toca el flush
+    private final long[] flushedSeen;
+    private final boolean[] flushedConnected;
+
+    // Referencia para convertir nanoTime a fecha
+    private final long bootNanos = System.nanoTime();
+    private final long bootEpochMillis = System.currentTimeMillis();
+
+    public DeviceHeartbeatServiceImpl(
+            IotDeviceRepository iotDeviceRepository,
+            IotDeviceSyncRepository iotDeviceSyncRepository,
+            @Value("${smartparking.heartbeat.capacity:4096}") int capacity,
+            @Value("${smartparking.heartbeat.timeout-ms:30000}") long timeoutMs) {
+        this.iotDeviceRepository = iotDeviceRepository;
+        this.iotDeviceSyncRepository = iotDeviceSyncRepository;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.deviceIds = new String[capacity];
+        this.lastSeen = new AtomicLongArray(capacity);
+        this.connected = new AtomicIntegerArray(capacity);
+        this.flushedSeen = new long[capacity];
+        this.flushedConnected = new boolean[capacity];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        for (Object[] row : iotDeviceRepository.findConnectionStates()) {
+            boolean isConnected = Boolean.TRUE.equals(row[1]);
+            register((String) row[0], isConnected);
+        }
+        log.info("Tabla de heartbeats inicializada con {} dispositivos", size);
+    }
+
+    @Override
+    public void recordHeartbeat(String deviceId) {
+        int index = indexOf(deviceId);
+        lastSeen.set(index, System.nanoTime());
+        if (connected.compareAndSet(index, 0, 1)) {
+            log.info("Dispositivo {} conectado", deviceId);
+        }
+    }
+
+    @Override
+    public List<DeviceConnectionResponse> getConnections() {
+        int count = size;
+        List<DeviceConnectionResponse> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long seen = lastSeen.get(i);
+            result.add(DeviceConnectionResponse.builder()
+                    .deviceId(deviceIds[i])
+                    .connected(connected.get(i) == 1)
+                    .lastSeen(seen == 0 ? null : toDateTime(seen))
+                    .build());
+        }
+        return result;
+    }
+
+    // Detección de desconexiones con un solo recorrido de la tabla
+    @Scheduled(fixedDelayString = "${smartparking.heartbeat.check-ms:1000}")
+    public void detectDisconnects() {
+        long now = System.nanoTime();
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            if (connected.get(i) == 0) continue;
+
+            long seen = lastSeen.get(i);
+            long reference = seen == 0 ? bootNanos : seen;
+            if (now - reference > timeoutNanos && connected.compareAndSet(i, 1, 0)) {
+                log.info("Dispositivo {} desconectado (sin heartbeat)", deviceIds[i]);
+            }
+        }
+    }
+
+    // Persiste lastSync/isConnected de todos los cambios en un único UPDATE
+    @Scheduled(fixedDelayString = "${smartparking.heartbeat.flush-ms:10000}")
+    public void flush() {
+        int count = size;
+        List<Integer> indexes = new ArrayList<>();
+        List<Long> seenValues = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        List<Timestamp> syncs = new ArrayList<>();
+        List<Boolean> states = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            long seen = lastSeen.get(i);
+            boolean isConnected = connected.get(i) == 1;
+            if (seen == flushedSeen[i] && isConnected == flushedConnected[i]) continue;
+
+            indexes.add(i);
+            seenValues.add(seen);
+            ids.add(deviceIds[i]);
+            syncs.add(seen == 0 ? null : Timestamp.valueOf(toDateTime(seen)));
+            states.add(isConnected);
+        }
+
+        if (ids.isEmpty()) return;
+
+        try {
+            iotDeviceSyncRepository.updateSyncState(ids, syncs, states);
+            for (int k = 0; k < indexes.size(); k++) {
+                flushedSeen[indexes.get(k)] = seenValues.get(k);
+                flushedConnected[indexes.get(k)] = states.get(k);
+            }
+            log.debug("lastSync persistido para {} dispositivos", ids.size());
+        } catch (Exception e) {
+            log.warn("Error persistiendo heartbeats: {}", e.getMessage());
+        }
+    }
+
+    private int indexOf(String deviceId) {
+        Integer index = indexByDevice.get(deviceId);
+        if (index != null) return index;
+
+        synchronized (this) {
+            index = indexByDevice.get(deviceId);
+            if (index != null) return index;
+
+            if (!iotDeviceRepository.existsById(deviceId)) {
+                throw new ResourceNotFoundException("Dispositivo no encontrado: " + deviceId);
+            }
+            return register(deviceId, false);
+        }
+    }
+
+    private synchronized int register(String deviceId, boolean isConnected) {
+        Integer existing = indexByDevice.get(deviceId);
+        if (existing != null) return existing;
+
+        int index = size;
+        if (index >= deviceIds.length) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Capacidad de la tabla de heartbeats agotada");
+        }
+
+        deviceIds[index] = deviceId;
+        connected.set(index, isConnected ? 1 : 0);
+        flushedConnected[index] = isConnected;
+        size = index + 1;
+        indexByDevice.put(deviceId, index);
+        return index;
+    }
+
+    private LocalDateTime toDateTime(long nanos) {
+        long epochMillis = bootEpochMillis + TimeUnit.NANOSECONDS.toMillis(nanos - bootNanos);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,228 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandFrameResponse;
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandResponse;
+import com.smartparking.Smartparking.entity.reservation.Reservation;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.entity.space_iot.SpaceLedStatus;
+import com.smartparking.Smartparking.event.space_iot.SensorAssignedEvent;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import com.smartparking.Smartparking.repository.space_iot.SpaceLedStatusRepository;
+import com.smartparking.Smartparking.service.space_iot.LedCommandService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedCommandServiceImpl implements LedCommandService {
+
+    private final ParkingSpaceRepository parkingSpaceRepository;
+    private final SensorRepository sensorRepository;
+    private final SpaceLedStatusRepository ledStatusRepository;
+
+    // Color deseado vs. último color confirmado (ack) por el controlador
+    private final Map<String, SpaceLedStatus.LedColor> desired = new ConcurrentHashMap<>();
+    private final Map<String, SpaceLedStatus.LedColor> acknowledged = new ConcurrentHashMap<>();
+    private final Map<String, String> spaceCodes = new ConcurrentHashMap<>();
+    private final Map<String, String> deviceBySpace = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<String> unassigned = ConcurrentHashMap.newKeySet();
+
+    // Un único frame pendiente por IotDevice
+    private final Map<String, LedCommandFrameResponse> outstanding = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        for (Object[] row : ledStatusRepository.findAllColors()) {
+            acknowledged.put((String) row[0], (SpaceLedStatus.LedColor) row[1]);
+        }
+        refreshAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceStatusChanged(SpaceStatusChangedEvent event) {
+        spaceCodes.put(event.spaceId(), event.code());
+        // Zona/nivel o confirmaciones que no cambian el color no generan comandos
+        SpaceLedStatus.LedColor color = resolveColor(event.status(), event.reservationStatus());
+        if (desired.put(event.spaceId(), color) == color) return;
+        dirty.add(event.spaceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSensorAssigned(SensorAssignedEvent event) {
+        if (event.deviceId() == null) {
+            deviceBySpace.remove(event.spaceId());
+            return;
+        }
+        String previous = deviceBySpace.put(event.spaceId(), event.deviceId());
+
+        // Solo se recalcula lo que quedó pendiente sin dispositivo o lo que pasa a otro controlador
+        boolean pending = unassigned.remove(event.spaceId());
+        if (!pending && event.deviceId().equals(previous)) return;
+        // El nuevo controlador no ha confirmado nada todavía
+        if (previous != null) acknowledged.remove(event.spaceId());
+
+        if (!desired.containsKey(event.spaceId())) {
+            parkingSpaceRepository.findById(event.spaceId()).ifPresent(space -> {
+                spaceCodes.put(space.getSpaceId(), space.getCode());
+                desired.putIfAbsent(space.getSpaceId(), resolveColor(space.getStatus(), null));
+            });
+        }
+        dirty.add(event.spaceId());
+    }
+
+    @Override
+    public int refreshAll() {
+        loadAssignments();
+
+        List<Object[]> rows = parkingSpaceRepository.findSpaceReservationStates();
+        for (Object[] row : rows) {
+            String spaceId = (String) row[0];
+            spaceCodes.put(spaceId, (String) row[1]);
+            desired.put(spaceId, resolveColor(
+                    (ParkingSpace.SpaceStatus) row[2],
+                    (Reservation.ReservationStatus) row[3]));
+            dirty.add(spaceId);
+        }
+        return rows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.led.flush-ms:500}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+
+        Map<String, Map<String, LedCommandResponse>> byDevice = new HashMap<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            String spaceId = it.next();
+            it.remove();
+
+            SpaceLedStatus.LedColor target = desired.get(spaceId);
+            if (target == null) continue;
+
+            String deviceId = deviceBySpace.get(spaceId);
+            if (deviceId == null) {
+                unassigned.add(spaceId); // onSensorAssigned lo vuelve a marcar al asignarle un sensor
+                continue;
+            }
+
+            // Si vuelve al color confirmado, un comando distinto aún sin ack debe sobrescribirse
+            if (target == acknowledged.get(spaceId) && !inFlightDiffers(deviceId, spaceId, target)) continue;
+
+            byDevice.computeIfAbsent(deviceId, k -> new LinkedHashMap<>())
+                    .put(spaceId, LedCommandResponse.builder()
+                            .spaceId(spaceId)
+                            .code(spaceCodes.get(spaceId))
+                            .color(target.name())
+                            .build());
+        }
+
+        byDevice.forEach((deviceId, commands) ->
+                outstanding.merge(deviceId, newFrame(deviceId, commands), this::mergeFrames));
+    }
+
+    @Override
+    public Optional<LedCommandFrameResponse> getPendingFrame(String deviceId) {
+        return Optional.ofNullable(outstanding.get(deviceId));
+    }
+
+    @Override
+    @Transactional
+    public void acknowledgeFrame(String deviceId, String frameId) {
+        LedCommandFrameResponse frame = outstanding.get(deviceId);
+        if (frame == null || !frame.getFrameId().equals(frameId) || !outstanding.remove(deviceId, frame)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Frame desconocido o reemplazado por uno más reciente");
+        }
+
+        Map<String, LedCommandResponse> commands = frame.getCommands().stream()
+                .collect(Collectors.toMap(LedCommandResponse::getSpaceId, Function.identity()));
+        commands.values().forEach(c -> acknowledged.put(c.getSpaceId(), SpaceLedStatus.LedColor.valueOf(c.getColor())));
+
+        // Persistir el estado confirmado en un solo lote
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, SpaceLedStatus> existing = ledStatusRepository.findByParkingSpace_SpaceIdIn(commands.keySet()).stream()
+                .collect(Collectors.toMap(l -> l.getParkingSpace().getSpaceId(), Function.identity()));
+
+        List<SpaceLedStatus> toSave = new ArrayList<>(commands.size());
+        for (LedCommandResponse command : commands.values()) {
+            SpaceLedStatus led = existing.get(command.getSpaceId());
+            if (led == null) {
+                led = new SpaceLedStatus();
+                led.setParkingSpace(parkingSpaceRepository.getReferenceById(command.getSpaceId()));
+            }
+            SpaceLedStatus.LedColor color = SpaceLedStatus.LedColor.valueOf(command.getColor());
+            led.setColor(color);
+            led.setStatus(color != SpaceLedStatus.LedColor.off);
+            led.setLastUpdated(now);
+            toSave.add(led);
+        }
+        ledStatusRepository.saveAll(toSave);
+    }
+
+    private boolean inFlightDiffers(String deviceId, String spaceId, SpaceLedStatus.LedColor target) {
+        LedCommandFrameResponse frame = outstanding.get(deviceId);
+        return frame != null && frame.getCommands().stream()
+                .anyMatch(c -> c.getSpaceId().equals(spaceId) && !c.getColor().equals(target.name()));
+    }
+
+    private void loadAssignments() {
+        for (Object[] row : sensorRepository.findSpaceDeviceAssignments()) {
+            deviceBySpace.put((String) row[0], (String) row[1]);
+        }
+    }
+
+    private LedCommandFrameResponse newFrame(String deviceId, Map<String, LedCommandResponse> commands) {
+        return LedCommandFrameResponse.builder()
+                .frameId(UUID.randomUUID().toString())
+                .deviceId(deviceId)
+                .commands(List.copyOf(commands.values()))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Un frame no confirmado se reemplaza por uno que incluye sus comandos más los nuevos
+    private LedCommandFrameResponse mergeFrames(LedCommandFrameResponse previous, LedCommandFrameResponse next) {
+        Map<String, LedCommandResponse> merged = new LinkedHashMap<>();
+        previous.getCommands().forEach(c -> merged.put(c.getSpaceId(), c));
+        next.getCommands().forEach(c -> merged.put(c.getSpaceId(), c));
+        return newFrame(next.getDeviceId(), merged);
+    }
+
+    static SpaceLedStatus.LedColor resolveColor(ParkingSpace.SpaceStatus status,
+                                                Reservation.ReservationStatus reservationStatus) {
+        return switch (status) {
+            case available -> SpaceLedStatus.LedColor.green;
+            case occupied -> SpaceLedStatus.LedColor.red;
+            case maintenance -> SpaceLedStatus.LedColor.yellow;
+            case reserved -> {
+                if (reservationStatus == Reservation.ReservationStatus.active) yield SpaceLedStatus.LedColor.red;
+                if (reservationStatus == Reservation.ReservationStatus.pending) yield SpaceLedStatus.LedColor.blinking;
+                yield SpaceLedStatus.LedColor.blue;
+            }
+        };
+    }
+}
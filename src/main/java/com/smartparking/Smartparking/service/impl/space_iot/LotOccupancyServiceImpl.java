@@ -0,0 +1,190 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LotSummaryResponse;
+import com.smartparking.Smartparking.dto.response.space_iot.ZoneOccupancyResponse;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import com.smartparking.Smartparking.service.space_iot.LotOccupancyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LotOccupancyServiceImpl implements LotOccupancyService {
+
+    private static final ParkingSpace.SpaceStatus[] STATUSES = ParkingSpace.SpaceStatus.values();
+
+    private static final Comparator<ZoneKey> ZONE_ORDER = Comparator
+            .comparing(ZoneKey::level, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ZoneKey::zone, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ParkingSpaceRepository parkingSpaceRepository;
+
+    // Un LongAdder por estado y zona: las transiciones concurrentes no compiten por el mismo contador
+    private final Map<ZoneKey, LongAdder[]> counters = new ConcurrentHashMap<>();
+    // Último estado conocido por espacio; los contadores se mueven desde aquí, no desde el evento
+    private final Map<String, SpaceState> spaces = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile LocalDateTime lastReconciledAt;
+
+    private record ZoneKey(Integer level, String zone) {}
+
+    // seq: número del evento que fijó el estado (o de la reconciliación que lo cargó)
+    private record SpaceState(ZoneKey key, ParkingSpace.SpaceStatus status, long seq) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceStatusChanged(SpaceStatusChangedEvent event) {
+        ZoneKey key = new ZoneKey(event.level(), event.zone());
+        spaces.compute(event.spaceId(), (id, current) -> {
+            SpaceState next = new SpaceState(key, event.status(), sequence.incrementAndGet());
+            move(current, next);
+            return next;
+        });
+    }
+
+    @Override
+    public LotSummaryResponse getSummary() {
+        List<ZoneKey> keys = new ArrayList<>(counters.keySet());
+        keys.sort(ZONE_ORDER);
+
+        long[] lotTotals = new long[STATUSES.length];
+        Map<Integer, long[]> levelTotals = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        List<ZoneOccupancyResponse> zones = new ArrayList<>(keys.size());
+
+        for (ZoneKey key : keys) {
+            long[] values = snapshot(counters.get(key));
+            if (sum(values) == 0) continue; // zonas que quedaron vacías tras mover espacios
+            long[] level = levelTotals.computeIfAbsent(key.level(), l -> new long[STATUSES.length]);
+            for (int i = 0; i < values.length; i++) {
+                lotTotals[i] += values[i];
+                level[i] += values[i];
+            }
+            zones.add(toResponse(key.level(), key.zone(), values));
+        }
+
+        List<ZoneOccupancyResponse> levels = new ArrayList<>(levelTotals.size());
+        levelTotals.forEach((level, values) -> levels.add(toResponse(level, null, values)));
+
+        return LotSummaryResponse.builder()
+                .available(lotTotals[ParkingSpace.SpaceStatus.available.ordinal()])
+                .reserved(lotTotals[ParkingSpace.SpaceStatus.reserved.ordinal()])
+                .occupied(lotTotals[ParkingSpace.SpaceStatus.occupied.ordinal()])
+                .maintenance(lotTotals[ParkingSpace.SpaceStatus.maintenance.ordinal()])
+                .total(sum(lotTotals))
+                .levels(levels)
+                .zones(zones)
+                .lastReconciledAt(lastReconciledAt)
+                .build();
+    }
+
+    // Corrige la deriva de los contadores (eventos perdidos, cambios o borrados directos en la BD).
+    // Un espacio que recibió un evento después de empezar la reconciliación conserva el estado del evento:
+    // o ya estaba confirmado en la foto (mismo estado) o es posterior a ella. Nada se cuenta dos veces.
+    @Override
+    @Scheduled(fixedDelayString = "${smartparking.occupancy.reconcile-ms:300000}",
+            initialDelayString = "${smartparking.occupancy.reconcile-ms:300000}")
+    public synchronized void reconcile() {
+        long startSeq = sequence.get();
+        List<Object[]> rows;
+        try {
+            rows = parkingSpaceRepository.findOccupancyStates();
+        } catch (Exception e) {
+            log.warn("Error reconciliando contadores de ocupación: {}", e.getMessage());
+            return;
+        }
+
+        long[] drift = new long[1];
+        Set<String> present = new HashSet<>(rows.size());
+        for (Object[] row : rows) {
+            String spaceId = (String) row[0];
+            present.add(spaceId);
+            SpaceState loaded = new SpaceState(
+                    new ZoneKey((Integer) row[1], (String) row[2]), (ParkingSpace.SpaceStatus) row[3], startSeq);
+            spaces.compute(spaceId, (id, current) -> {
+                if (current != null && current.seq() > startSeq) return current;
+                if (move(current, loaded)) drift[0]++;
+                return loaded;
+            });
+        }
+
+        // Espacios borrados: se descuentan de su zona salvo que un evento los haya tocado durante la reconciliación
+        for (String spaceId : spaces.keySet()) {
+            if (present.contains(spaceId)) continue;
+            spaces.computeIfPresent(spaceId, (id, current) -> {
+                if (current.seq() > startSeq) return current;
+                move(current, null);
+                drift[0]++;
+                return null;
+            });
+        }
+
+        lastReconciledAt = LocalDateTime.now();
+        if (drift[0] > 0) {
+            log.info("Contadores de ocupación reconciliados (deriva: {} espacios)", drift[0]);
+        }
+    }
+
+    // Mueve un espacio entre contadores; devuelve false si no cambió de zona ni de estado
+    private boolean move(SpaceState from, SpaceState to) {
+        if (from != null && to != null && from.key().equals(to.key()) && from.status() == to.status()) return false;
+        if (from != null) adders(from.key())[from.status().ordinal()].decrement();
+        if (to != null) adders(to.key())[to.status().ordinal()].increment();
+        return true;
+    }
+
+    private LongAdder[] adders(ZoneKey key) {
+        return counters.computeIfAbsent(key, k -> {
+            LongAdder[] adders = new LongAdder[STATUSES.length];
+            for (int i = 0; i < adders.length; i++) adders[i] = new LongAdder();
+            return adders;
+        });
+    }
+
+    private static long[] snapshot(LongAdder[] adders) {
+        long[] values = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) values[i] = adders[i].sum();
+        return values;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) total += value;
+        return total;
+    }
+
+    private static ZoneOccupancyResponse toResponse(Integer level, String zone, long[] values) {
+        return ZoneOccupancyResponse.builder()
+                .level(level)
+                .zone(zone)
+                .available(values[ParkingSpace.SpaceStatus.available.ordinal()])
+                .reserved(values[ParkingSpace.SpaceStatus.reserved.ordinal()])
+                .occupied(values[ParkingSpace.SpaceStatus.occupied.ordinal()])
+                .maintenance(values[ParkingSpace.SpaceStatus.maintenance.ordinal()])
+                .total(sum(values))
+                .build();
+    }
+}
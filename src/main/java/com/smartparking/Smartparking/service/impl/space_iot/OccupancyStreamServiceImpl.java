@@ -0,0 +1,187 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.OccupancyUpdateResponse;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.service.space_iot.OccupancyStreamService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@Slf4j
+public class OccupancyStreamServiceImpl implements OccupancyStreamService {
+
+    // Último estado por espacio dentro de la ventana actual (los intermedios se descartan)
+    private final Map<String, OccupancyUpdateResponse> pending = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+
+    public OccupancyStreamServiceImpl(
+            @Value("${smartparking.occupancy.sender-threads:4}") int senderThreads,
+            @Value("${smartparking.occupancy.buffer-size:512}") int bufferSize,
+            @Value("${smartparking.occupancy.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.senders = Executors.newFixedThreadPool(senderThreads);
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data("ok"));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Solo cambios confirmados; sin transacción (p. ej. desde un controller) se emite directamente
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceStatusChanged(SpaceStatusChangedEvent event) {
+        // Lecturas repetidas del sensor: no hay nada nuevo que enviar a los clientes
+        if (event.previousStatus() == event.status()
+                && Objects.equals(event.previousZone(), event.zone())
+                && Objects.equals(event.previousLevel(), event.level())) {
+            return;
+        }
+        pending.put(event.spaceId(), OccupancyUpdateResponse.builder()
+                .spaceId(event.spaceId())
+                .code(event.code())
+                .zone(event.zone())
+                .level(event.level())
+                .status(event.status().name().toLowerCase())
+                .changedAt(event.occurredAt())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${smartparking.occupancy.coalesce-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<OccupancyUpdateResponse> batch = new ArrayList<>(pending.size());
+        for (String spaceId : pending.keySet()) {
+            OccupancyUpdateResponse update = pending.remove(spaceId);
+            if (update != null) batch.add(update);
+        }
+
+        if (batch.isEmpty() || subscribers.isEmpty()) return;
+
+        List<OccupancyUpdateResponse> frame = List.copyOf(batch);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+    }
+
+    // Cada conexión tiene su propio buffer acotado; un cliente lento solo recibe el último estado
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final LinkedHashMap<String, OccupancyUpdateResponse> backlog = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean draining;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(List<OccupancyUpdateResponse> frame) {
+            boolean schedule;
+            synchronized (this) {
+                for (OccupancyUpdateResponse update : frame) {
+                    backlog.remove(update.getSpaceId());
+                    backlog.put(update.getSpaceId(), update);
+                }
+                if (backlog.size() > bufferSize) {
+                    // Demasiado atrasado: el cliente debe recargar el mapa completo
+                    backlog.clear();
+                    resync = true;
+                }
+                schedule = !draining;
+                draining = true;
+            }
+
+            if (schedule) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<OccupancyUpdateResponse> chunk;
+                boolean sendResync;
+                synchronized (this) {
+                    if (backlog.isEmpty() && !resync) {
+                        draining = false;
+                        return;
+                    }
+                    chunk = new ArrayList<>(backlog.values());
+                    backlog.clear();
+                    sendResync = resync;
+                    resync = false;
+                }
+
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name("resync").data("reload"));
+                    }
+                    if (!chunk.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("occupancy").data(chunk, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Suscriptor de ocupación desconectado: {}", e.getMessage());
+                    subscribers.remove(this);
+                    synchronized (this) {
+                        backlog.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
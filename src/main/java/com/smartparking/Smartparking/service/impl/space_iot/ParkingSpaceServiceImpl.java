@@ -4,22 +4,26 @@ import com.smartparking.Smartparking.dto.request.space_iot.ParkingSpaceRequestDt
 import com.smartparking.Smartparking.dto.request.space_iot.UpdateParkingSpaceDto;
 import com.smartparking.Smartparking.dto.response.space_iot.ParkingSpaceResponse;
 import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
 import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
 import com.smartparking.Smartparking.service.space_iot.ParkingSpaceService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class ParkingSpaceServiceImpl implements ParkingSpaceService {
 
     private final ParkingSpaceRepository parkingSpaceRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<ParkingSpaceResponse> getAllParkingSpaces() {
@@ -46,9 +50,12 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService {
         ParkingSpace space = new ParkingSpace();
         space.setCode(request.getCode().toUpperCase());
         space.setStatus(parseStatus(request.getStatus(), ParkingSpace.SpaceStatus.available));
+        space.setZone(normalizeZone(request.getZone()));
+        space.setLevel(request.getLevel());
         space.setLastUpdated(LocalDateTime.now());
 
         space = parkingSpaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, null));
         return mapToResponse(space);
     }
 
@@ -66,12 +73,28 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService {
             space.setCode(newCode);
         }
 
+        ParkingSpace.SpaceStatus previousStatus = space.getStatus();
+        String previousZone = space.getZone();
+        Integer previousLevel = space.getLevel();
         if (request.getStatus() != null && !request.getStatus().isBlank()) {
             space.setStatus(parseStatus(request.getStatus(), space.getStatus()));
         }
+        if (request.getZone() != null) {
+            space.setZone(normalizeZone(request.getZone()));
+        }
+        if (request.getLevel() != null) {
+            space.setLevel(request.getLevel());
+        }
 
         space.setLastUpdated(LocalDateTime.now());
         space = parkingSpaceRepository.save(space);
+
+        boolean moved = !Objects.equals(previousZone, space.getZone()) || !Objects.equals(previousLevel, space.getLevel());
+        if (moved) {
+            eventPublisher.publishEvent(SpaceStatusChangedEvent.moved(space, previousStatus, previousZone, previousLevel));
+        } else if (space.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
+        }
         return mapToResponse(space);
     }
 
@@ -88,10 +111,16 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService {
         return status == null || status.isBlank() ? defaultStatus : parseStatus(status);
     }
 
+    private String normalizeZone(String zone) {
+        return zone == null || zone.isBlank() ? null : zone.trim().toUpperCase();
+    }
+
     private ParkingSpaceResponse mapToResponse(ParkingSpace ps) {
         return ParkingSpaceResponse.builder()
                 .spaceId(ps.getSpaceId())
                 .code(ps.getCode())
+                .zone(ps.getZone())
+                .level(ps.getLevel())
                 .status(ps.getStatus().name().toLowerCase())
                 .currentReservationId(ps.getCurrentReservationId())
                 .lastUpdated(ps.getLastUpdated())
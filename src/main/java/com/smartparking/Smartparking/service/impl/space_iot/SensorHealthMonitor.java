@@ -0,0 +1,272 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.SensorHealthResponse;
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Estadísticas en línea por sensor en arrays primitivos: memoria constante y cero asignaciones por lectura
+@Component
+@Slf4j
+public class SensorHealthMonitor {
+
+    private static final int STRIPES = 64;
+
+    private static final int REASON_NOISE = 1;
+    private static final int REASON_OUT_OF_RANGE = 2;
+    private static final int REASON_FLATLINE = 4;
+
+    private static final int STATE_UNKNOWN = 0;
+    private static final int STATE_ACTIVE = 1;
+    private static final int STATE_ERROR = 2;
+
+    private final SensorRepository sensorRepository;
+
+    private final double minCm;
+    private final double maxCm;
+    private final int windowSize;
+    private final double noiseStddevCm;
+    private final double maxStepCm;
+    private final double maxStepRate;
+    private final double maxOutOfRangeRate;
+    private final double flatlineEpsilonCm;
+    private final long flatlineNanos;
+
+    private final String[] sensorIds;
+    private final long[] readings;
+    private final long[] lastReadingNanos;
+    private final double[] previousValue;
+
+    // Ventana actual: Welford sobre diferencias sucesivas dentro de un mismo nivel + saltos de nivel
+    // (llegadas/salidas) + lecturas fuera de rango
+    private final long[] windowTotal;
+    private final long[] windowDiffs;
+    private final long[] windowSteps;
+    private final double[] windowMean;
+    private final double[] windowM2;
+    private final long[] windowOutOfRange;
+
+    // Resultado de la última ventana cerrada
+    private final double[] lastStddev;
+    private final double[] lastOutOfRangeRate;
+    private final int[] windowReasons;
+
+    private final long[] flatlineSince;
+    private final int[] reasons;
+    private final int[] persistedState;
+    private final Object[] locks = new Object[STRIPES];
+    private volatile int highestSlot = -1;
+
+    public SensorHealthMonitor(
+            SensorRepository sensorRepository,
+            @Value("${smartparking.sensors.capacity:8192}") int capacity,
+            @Value("${smartparking.sensors.health.min-cm:2}") double minCm,
+            @Value("${smartparking.sensors.health.max-cm:400}") double maxCm,
+            @Value("${smartparking.sensors.health.window-size:100}") int windowSize,
+            @Value("${smartparking.sensors.health.noise-stddev-cm:30}") double noiseStddevCm,
+            @Value("${smartparking.sensors.health.max-step-cm:100}") double maxStepCm,
+            @Value("${smartparking.sensors.health.max-step-rate:0.1}") double maxStepRate,
+            @Value("${smartparking.sensors.health.max-out-of-range-rate:0.2}") double maxOutOfRangeRate,
+            @Value("${smartparking.sensors.health.flatline-epsilon-cm:0.01}") double flatlineEpsilonCm,
+            @Value("${smartparking.sensors.health.flatline-minutes:120}") long flatlineMinutes) {
+        this.sensorRepository = sensorRepository;
+        this.minCm = minCm;
+        this.maxCm = maxCm;
+        this.windowSize = windowSize;
+        this.noiseStddevCm = noiseStddevCm;
+        this.maxStepCm = maxStepCm;
+        this.maxStepRate = maxStepRate;
+        this.maxOutOfRangeRate = maxOutOfRangeRate;
+        this.flatlineEpsilonCm = flatlineEpsilonCm;
+        this.flatlineNanos = TimeUnit.MINUTES.toNanos(flatlineMinutes);
+
+        this.sensorIds = new String[capacity];
+        this.readings = new long[capacity];
+        this.lastReadingNanos = new long[capacity];
+        this.previousValue = new double[capacity];
+        this.windowTotal = new long[capacity];
+        this.windowDiffs = new long[capacity];
+        this.windowSteps = new long[capacity];
+        this.windowMean = new double[capacity];
+        this.windowM2 = new double[capacity];
+        this.windowOutOfRange = new long[capacity];
+        this.lastStddev = new double[capacity];
+        this.lastOutOfRangeRate = new double[capacity];
+        this.windowReasons = new int[capacity];
+        this.flatlineSince = new long[capacity];
+        this.reasons = new int[capacity];
+        this.persistedState = new int[capacity];
+        Arrays.fill(previousValue, Double.NaN);
+        for (int i = 0; i < STRIPES; i++) locks[i] = new Object();
+    }
+
+    public int capacity() {
+        return sensorIds.length;
+    }
+
+    public void register(int slot, String sensorId, Sensor.SensorState state) {
+        synchronized (locks[slot % STRIPES]) {
+            sensorIds[slot] = sensorId;
+            persistedState[slot] = switch (state) {
+                case active -> STATE_ACTIVE;
+                case error -> STATE_ERROR;
+                case inactive -> STATE_UNKNOWN;
+            };
+        }
+        synchronized (this) {
+            if (slot > highestSlot) highestSlot = slot;
+        }
+    }
+
+    // Devuelve true si el sensor se considera sano tras esta lectura
+    public boolean record(int slot, double distanceCm, long nanos) {
+        synchronized (locks[slot % STRIPES]) {
+            readings[slot]++;
+            lastReadingNanos[slot] = nanos;
+            windowTotal[slot]++;
+
+            boolean outOfRange = Double.isNaN(distanceCm) || distanceCm < minCm || distanceCm > maxCm;
+            if (outOfRange) {
+                windowOutOfRange[slot]++;
+            } else {
+                double previous = previousValue[slot];
+                if (!Double.isNaN(previous)) {
+                    double diff = distanceCm - previous;
+                    if (Math.abs(diff) > maxStepCm) {
+                        // Cambio de nivel (llegada o salida de un vehículo): no es ruido de medida
+                        windowSteps[slot]++;
+                    } else {
+                        long n = ++windowDiffs[slot];
+                        double delta = diff - windowMean[slot];
+                        windowMean[slot] += delta / n;
+                        windowM2[slot] += delta * (diff - windowMean[slot]);
+                    }
+
+                    if (Math.abs(diff) <= flatlineEpsilonCm) {
+                        if (flatlineSince[slot] == 0) flatlineSince[slot] = nanos;
+                    } else {
+                        flatlineSince[slot] = 0;
+                    }
+                }
+                previousValue[slot] = distanceCm;
+            }
+
+            if (windowTotal[slot] >= windowSize) {
+                closeWindow(slot);
+            }
+
+            boolean flatlined = flatlineSince[slot] != 0 && nanos - flatlineSince[slot] > flatlineNanos;
+            reasons[slot] = windowReasons[slot] | (flatlined ? REASON_FLATLINE : 0);
+            return reasons[slot] == 0;
+        }
+    }
+
+    public List<SensorHealthResponse> report() {
+        int last = highestSlot;
+        long now = System.nanoTime();
+        List<SensorHealthResponse> result = new ArrayList<>(last + 1);
+
+        for (int slot = 0; slot <= last; slot++) {
+            synchronized (locks[slot % STRIPES]) {
+                if (sensorIds[slot] == null) continue;
+
+                long flatline = flatlineSince[slot] == 0 ? 0 : TimeUnit.NANOSECONDS.toSeconds(now - flatlineSince[slot]);
+                result.add(SensorHealthResponse.builder()
+                        .sensorId(sensorIds[slot])
+                        .status(reasons[slot] == 0 ? "healthy" : "faulty")
+                        .reasons(describe(reasons[slot]))
+                        .readings(readings[slot])
+                        .noiseStddevCm(lastStddev[slot])
+                        .outOfRangeRate(lastOutOfRangeRate[slot])
+                        .flatlineSeconds(flatline)
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    // Persiste Sensor.state solo para los sensores que cambiaron (error <-> active)
+    @Scheduled(fixedDelayString = "${smartparking.sensors.health.evaluate-ms:5000}")
+    public void persistStateChanges() {
+        int last = highestSlot;
+        List<String> toError = new ArrayList<>();
+        List<String> toActive = new ArrayList<>();
+        List<Integer> errorSlots = new ArrayList<>();
+        List<Integer> activeSlots = new ArrayList<>();
+
+        for (int slot = 0; slot <= last; slot++) {
+            synchronized (locks[slot % STRIPES]) {
+                if (sensorIds[slot] == null || readings[slot] == 0) continue;
+
+                int desired = reasons[slot] == 0 ? STATE_ACTIVE : STATE_ERROR;
+                if (desired == persistedState[slot]) continue;
+
+                if (desired == STATE_ERROR) {
+                    toError.add(sensorIds[slot]);
+                    errorSlots.add(slot);
+                } else {
+                    toActive.add(sensorIds[slot]);
+                    activeSlots.add(slot);
+                }
+            }
+        }
+
+        try {
+            if (!toError.isEmpty()) {
+                sensorRepository.updateState(toError, Sensor.SensorState.error);
+                markPersisted(errorSlots, STATE_ERROR);
+                log.warn("Sensores marcados con error: {}", toError);
+            }
+            if (!toActive.isEmpty()) {
+                sensorRepository.updateState(toActive, Sensor.SensorState.active);
+                markPersisted(activeSlots, STATE_ACTIVE);
+            }
+        } catch (Exception e) {
+            log.warn("Error actualizando estado de sensores: {}", e.getMessage());
+        }
+    }
+
+    private void closeWindow(int slot) {
+        long diffs = windowDiffs[slot];
+        double stddev = diffs > 1 ? Math.sqrt(windowM2[slot] / (diffs - 1)) : 0.0;
+        double outOfRangeRate = (double) windowOutOfRange[slot] / windowTotal[slot];
+        // Saltos de nivel casi en cada lectura no son vehículos: el sensor oscila entre extremos
+        double stepRate = diffs + windowSteps[slot] > 0 ? (double) windowSteps[slot] / (diffs + windowSteps[slot]) : 0.0;
+
+        lastStddev[slot] = stddev;
+        lastOutOfRangeRate[slot] = outOfRangeRate;
+        windowReasons[slot] = (stddev > noiseStddevCm || stepRate > maxStepRate ? REASON_NOISE : 0)
+                | (outOfRangeRate > maxOutOfRangeRate ? REASON_OUT_OF_RANGE : 0);
+
+        windowTotal[slot] = 0;
+        windowDiffs[slot] = 0;
+        windowSteps[slot] = 0;
+        windowMean[slot] = 0;
+        windowM2[slot] = 0;
+        windowOutOfRange[slot] = 0;
+    }
+
+    private void markPersisted(List<Integer> slots, int state) {
+        for (int slot : slots) {
+            synchronized (locks[slot % STRIPES]) {
+                persistedState[slot] = state;
+            }
+        }
+    }
+
+    private static List<String> describe(int reasonMask) {
+        List<String> result = new ArrayList<>(3);
+        if ((reasonMask & REASON_NOISE) != 0) result.add("noise");
+        if ((reasonMask & REASON_OUT_OF_RANGE) != 0) result.add("out_of_range");
+        if ((reasonMask & REASON_FLATLINE) != 0) result.add("flatline");
+        return result;
+    }
+}
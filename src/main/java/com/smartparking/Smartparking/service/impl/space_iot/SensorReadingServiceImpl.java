@@ -0,0 +1,168 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.request.space_iot.SensorReadingRequestDto;
+import com.smartparking.Smartparking.dto.response.space_iot.SensorHealthResponse;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+import com.smartparking.Smartparking.entity.space_iot.SensorReading;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.exception.ResourceNotFoundException;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import com.smartparking.Smartparking.repository.space_iot.SensorReadingRepository;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import com.smartparking.Smartparking.service.space_iot.SensorReadingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+@Service
+@Slf4j
+public class SensorReadingServiceImpl implements SensorReadingService {
+
+    private static final int UNKNOWN = -1;
+    private static final int FREE = 0;
+    private static final int OCCUPIED = 1;
+
+    private final SensorRepository sensorRepository;
+    private final SensorReadingRepository sensorReadingRepository;
+    private final ParkingSpaceRepository parkingSpaceRepository;
+    private final SensorHealthMonitor healthMonitor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final double occupiedThresholdCm;
+
+    private final Map<String, SensorBinding> bindings = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicIntegerArray occupancy;
+
+    private record SensorBinding(int slot, String sensorId, String spaceId) {}
+
+    public SensorReadingServiceImpl(
+            SensorRepository sensorRepository,
+            SensorReadingRepository sensorReadingRepository,
+            ParkingSpaceRepository parkingSpaceRepository,
+            SensorHealthMonitor healthMonitor,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${smartparking.sensors.occupied-threshold-cm:50}") double occupiedThresholdCm) {
+        this.sensorRepository = sensorRepository;
+        this.sensorReadingRepository = sensorReadingRepository;
+        this.parkingSpaceRepository = parkingSpaceRepository;
+        this.healthMonitor = healthMonitor;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.occupiedThresholdCm = occupiedThresholdCm;
+
+        int[] initial = new int[healthMonitor.capacity()];
+        Arrays.fill(initial, UNKNOWN);
+        this.occupancy = new AtomicIntegerArray(initial);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        for (Object[] row : sensorRepository.findSensorBindings()) {
+            bind((String) row[0], (String) row[1], (Sensor.SensorState) row[2]);
+        }
+        log.info("{} sensores registrados para ingesta", bindings.size());
+    }
+
+    @Override
+    public void ingest(String sensorId, SensorReadingRequestDto request) {
+        SensorBinding binding = resolve(sensorId);
+        double distance = request.getDistanceCm();
+
+        // Las lecturas de un sensor con falla no cambian la ocupación (evita ocupaciones fantasma)
+        boolean healthy = healthMonitor.record(binding.slot(), distance, System.nanoTime());
+        if (!healthy) return;
+
+        boolean detected = request.getVehicleDetected() != null
+                ? request.getVehicleDetected()
+                : distance <= occupiedThresholdCm;
+        int state = detected ? OCCUPIED : FREE;
+        if (occupancy.get(binding.slot()) == state) return;
+
+        synchronized (binding) {
+            if (occupancy.get(binding.slot()) == state) return;
+            applyTransition(binding, distance, detected);
+            occupancy.set(binding.slot(), state);
+        }
+    }
+
+    @Override
+    public List<SensorHealthResponse> getSensorHealth() {
+        return healthMonitor.report();
+    }
+
+    private void applyTransition(SensorBinding binding, double distance, boolean detected) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+
+            parkingSpaceRepository.findById(binding.spaceId()).ifPresent(space -> {
+                ParkingSpace.SpaceStatus previousStatus = space.getStatus();
+                if (detected && previousStatus == ParkingSpace.SpaceStatus.available) {
+                    space.setStatus(ParkingSpace.SpaceStatus.occupied);
+                } else if (!detected && previousStatus == ParkingSpace.SpaceStatus.occupied) {
+                    space.setStatus(ParkingSpace.SpaceStatus.available);
+                }
+
+                if (space.getStatus() != previousStatus) {
+                    space.setLastUpdated(now);
+                    parkingSpaceRepository.save(space);
+                    eventPublisher.publishEvent(SpaceStatusChangedEvent.of(space, previousStatus));
+                }
+            });
+
+            // Solo se guardan las lecturas que cambian la detección
+            SensorReading reading = new SensorReading();
+            reading.setSensor(sensorRepository.getReferenceById(binding.sensorId()));
+            reading.setDistanceCm(distance);
+            reading.setVehicleDetected(detected);
+            reading.setTimestamp(now);
+            sensorReadingRepository.save(reading);
+
+            sensorRepository.updateLastDistance(binding.sensorId(), distance);
+        });
+    }
+
+    private SensorBinding resolve(String sensorId) {
+        SensorBinding binding = bindings.get(sensorId);
+        if (binding != null) return binding;
+
+        List<Object[]> rows = sensorRepository.findSensorBinding(sensorId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Sensor no encontrado: " + sensorId);
+        }
+        Object[] row = rows.get(0);
+        return bind((String) row[0], (String) row[1], (Sensor.SensorState) row[2]);
+    }
+
+    private synchronized SensorBinding bind(String sensorId, String spaceId, Sensor.SensorState state) {
+        SensorBinding existing = bindings.get(sensorId);
+        if (existing != null) return existing;
+
+        int slot = nextSlot.get();
+        if (slot >= healthMonitor.capacity()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Capacidad de sensores agotada");
+        }
+        nextSlot.incrementAndGet();
+
+        SensorBinding binding = new SensorBinding(slot, sensorId, spaceId);
+        healthMonitor.register(slot, sensorId, state);
+        bindings.put(sensorId, binding);
+        return binding;
+    }
+}
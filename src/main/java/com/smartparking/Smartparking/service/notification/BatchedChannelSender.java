@@ -0,0 +1,12 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+
+import java.util.function.Consumer;
+
+// Canal que agrupa entregas: recibe la notificación y confirma más tarde (null = entregada, o el error)
+public interface BatchedChannelSender extends NotificationChannelSender {
+
+    // false si la etapa está saturada y no aceptó la notificación
+    boolean offer(ClaimedNotification notification, Consumer<String> onComplete);
+}
@@ -0,0 +1,18 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.BroadcastRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.BroadcastJobResponse;
+
+import java.util.List;
+
+public interface NotificationBroadcastService {
+    // Encola el broadcast en segundo plano; el progreso se consulta con getJob
+    BroadcastJobResponse startBroadcast(BroadcastRequestDto request);
+
+    BroadcastJobResponse getJob(String jobId);
+
+    List<BroadcastJobResponse> getRecentJobs();
+
+    // Ejecución síncrona (usada por sendToMultipleUsers)
+    BroadcastJobResponse broadcastNow(BroadcastRequestDto request);
+}
@@ -0,0 +1,11 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+
+// Entrega de una notificación por un canal concreto; una excepción provoca un reintento con backoff
+public interface NotificationChannelSender {
+    boolean supports(Notification.Channel channel);
+
+    void send(ClaimedNotification notification) throws Exception;
+}
@@ -0,0 +1,13 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationInboxPageResponse;
+
+public interface NotificationInboxService {
+    NotificationInboxPageResponse getInbox(String userId, String cursor, int limit);
+
+    long getUnreadCount(String userId);
+
+    void markAsRead(String userId, String notificationId);
+
+    int markAllAsRead(String userId);
+}
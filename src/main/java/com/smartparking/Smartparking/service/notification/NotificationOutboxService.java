@@ -0,0 +1,10 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.entity.notification.NotificationPreference;
+
+import java.util.Map;
+
+public interface NotificationOutboxService {
+    // Debe llamarse dentro de la transacción del cambio que origina la notificación
+    void append(String userId, NotificationPreference.NotificationType type, Map<String, Object> data);
+}
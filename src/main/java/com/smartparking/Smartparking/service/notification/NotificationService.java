@@ -1,6 +1,10 @@
 package com.smartparking.Smartparking.service.notification;
 
 
+import com.smartparking.Smartparking.dto.response.notification.NotificationCacheStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLaneStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationLogStatsResponse;
+import com.smartparking.Smartparking.dto.response.notification.NotificationMetricsResponse;
 import com.smartparking.Smartparking.entity.notification.NotificationPreference;
 
 import java.util.List;
@@ -10,4 +14,14 @@ public interface NotificationService {
     void sendIfEnabled(String userId, NotificationPreference.NotificationType type, Map<String, Object> data);
 
     void sendToMultipleUsers(List<String> userIds, NotificationPreference.NotificationType type, Map<String, Object> data);
+
+    void invalidatePreferences(String userId);
+
+    NotificationCacheStatsResponse getCacheStats();
+
+    NotificationMetricsResponse getMetrics();
+
+    NotificationLogStatsResponse getLogStats();
+
+    List<NotificationLaneStatsResponse> getLaneStats();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationStreamStatsResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NotificationStreamService {
+    SseEmitter connect(String userId, String sessionId);
+
+    boolean isConnected(String userId);
+
+    NotificationStreamStatsResponse getStats();
+}
@@ -0,0 +1,14 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.NotificationTemplateRequestDto;
+import com.smartparking.Smartparking.entity.notification.NotificationTemplate;
+
+import java.util.List;
+
+public interface NotificationTemplateService {
+    List<NotificationTemplate> getAllTemplates();
+
+    NotificationTemplate createTemplate(NotificationTemplateRequestDto request);
+
+    NotificationTemplate updateTemplate(String templateId, NotificationTemplateRequestDto request);
+}
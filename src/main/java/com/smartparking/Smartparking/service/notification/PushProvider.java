@@ -0,0 +1,24 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Proveedor push con envío multicast (FCM, APNs, ...); un mismo mensaje para varios tokens en una llamada
+public interface PushProvider {
+
+    record PushMessage(String title, String body, Map<String, String> data) {}
+
+    // invalidTokens: el proveedor indica que ya no existen; failedTokens: token -> error transitorio
+    record MulticastResult(Set<String> invalidTokens, Map<String, String> failedTokens) {}
+
+    String name();
+
+    boolean supports(UserDeviceToken.Platform platform);
+
+    int multicastLimit();
+
+    MulticastResult sendMulticast(PushMessage message, List<String> tokens) throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.smartparking.Smartparking.service.notification;
+
+import com.smartparking.Smartparking.dto.request.notification.SpaceSubscriptionRequestDto;
+import com.smartparking.Smartparking.dto.response.notification.SpaceSubscriptionResponse;
+
+import java.util.List;
+
+public interface SpaceSubscriptionService {
+    SpaceSubscriptionResponse subscribe(String userId, SpaceSubscriptionRequestDto request);
+
+    List<SpaceSubscriptionResponse> getActiveSubscriptions(String userId);
+
+    void cancel(String userId, String subscriptionId);
+}
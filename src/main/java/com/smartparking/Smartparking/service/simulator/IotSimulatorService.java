@@ -0,0 +1,12 @@
+package com.smartparking.Smartparking.service.simulator;
+
+import com.smartparking.Smartparking.dto.request.simulator.SimulationRequestDto;
+import com.smartparking.Smartparking.dto.response.simulator.SimulationReportResponse;
+
+public interface IotSimulatorService {
+    SimulationReportResponse start(SimulationRequestDto request);
+
+    SimulationReportResponse stop();
+
+    SimulationReportResponse report();
+}
@@ -0,0 +1,11 @@
+package com.smartparking.Smartparking.service.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.DeviceConnectionResponse;
+
+import java.util.List;
+
+public interface DeviceHeartbeatService {
+    void recordHeartbeat(String deviceId);
+
+    List<DeviceConnectionResponse> getConnections();
+}
@@ -0,0 +1,13 @@
+package com.smartparking.Smartparking.service.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandFrameResponse;
+
+import java.util.Optional;
+
+public interface LedCommandService {
+    Optional<LedCommandFrameResponse> getPendingFrame(String deviceId);
+
+    void acknowledgeFrame(String deviceId, String frameId);
+
+    int refreshAll();
+}
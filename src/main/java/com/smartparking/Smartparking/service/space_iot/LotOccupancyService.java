@@ -0,0 +1,9 @@
+package com.smartparking.Smartparking.service.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LotSummaryResponse;
+
+public interface LotOccupancyService {
+    LotSummaryResponse getSummary();
+
+    void reconcile();
+}
@@ -0,0 +1,9 @@
+package com.smartparking.Smartparking.service.space_iot;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OccupancyStreamService {
+    SseEmitter subscribe();
+
+    int getSubscriberCount();
+}
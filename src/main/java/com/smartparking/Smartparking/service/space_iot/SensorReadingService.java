@@ -0,0 +1,12 @@
+package com.smartparking.Smartparking.service.space_iot;
+
+import com.smartparking.Smartparking.dto.request.space_iot.SensorReadingRequestDto;
+import com.smartparking.Smartparking.dto.response.space_iot.SensorHealthResponse;
+
+import java.util.List;
+
+public interface SensorReadingService {
+    void ingest(String sensorId, SensorReadingRequestDto request);
+
+    List<SensorHealthResponse> getSensorHealth();
+}
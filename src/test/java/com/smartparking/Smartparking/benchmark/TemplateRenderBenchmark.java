@@ -0,0 +1,67 @@
+package com.smartparking.Smartparking.benchmark;
+
+import com.smartparking.Smartparking.service.impl.notification.CompiledTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compara el render anterior (String.replace por clave) con la plantilla compilada.
+// Ejecutar: mvn test-compile y luego main() con el classpath de test; "-prof gc" mide asignaciones.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderBenchmark {
+
+    private static final String TEMPLATE = """
+            Hola {{userName}}, tu reserva del espacio {{spaceCode}} para el {{date}} a las {{time}} \
+            fue confirmada. Recuerda llegar antes de las {{deadline}}; de lo contrario se registrará \
+            una ausencia ({{reason}}). Código de reserva: {{reservationId}}.""";
+
+    private Map<String, Object> data;
+    private CompiledTemplate compiled;
+
+    @Setup
+    public void setup() {
+        data = new LinkedHashMap<>();
+        data.put("userName", "María Fernández");
+        data.put("spaceCode", "A-12");
+        data.put("date", "19/10/2026");
+        data.put("time", "08:30");
+        data.put("deadline", "08:45");
+        data.put("reason", "No llegaste a tiempo al espacio");
+        data.put("reservationId", "6f1c2d7e-9a4b-4c1e-8d2f-3b5a7c9e1f20");
+        data.put("amount", "5.00"); // dato sin hueco en la plantilla
+        compiled = CompiledTemplate.compile(TEMPLATE);
+    }
+
+    @Benchmark
+    public String legacyReplace() {
+        String result = TEMPLATE;
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            result = result.replace("{{" + entry.getKey() + "}}", String.valueOf(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render(data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TemplateRenderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationCoalescerTest {
+
+    private static final Notification.Type SPACE_AVAILABLE = Notification.Type.space_available;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void suppressesDuplicatesWithinTheWindow() {
+        NotificationCoalescer coalescer = new NotificationCoalescer(List.of("space_available"), 60_000, 6);
+
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isTrue();
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isFalse();
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-2")).isTrue();
+        assertThat(coalescer.tryAccept("u2", SPACE_AVAILABLE, "A-1")).isTrue();
+
+        assertThat(coalescer.getAccepted()).isEqualTo(3);
+        assertThat(coalescer.getSuppressed()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresTypesThatAreNotCoalesced() {
+        NotificationCoalescer coalescer = new NotificationCoalescer(List.of("space_available"), 60_000, 6);
+
+        assertThat(coalescer.tryAccept("u1", Notification.Type.system_alert, "x")).isTrue();
+        assertThat(coalescer.tryAccept("u1", Notification.Type.system_alert, "x")).isTrue();
+        assertThat(coalescer.getSuppressed()).isZero();
+    }
+
+    @Test
+    void acceptsTheKeyAgainOnceTheWindowHasPassed() throws Exception {
+        NotificationCoalescer coalescer = new NotificationCoalescer(List.of("space_available"), 100, 2);
+
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isTrue();
+        Thread.sleep(250);
+
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isTrue();
+    }
+
+    @Test
+    void releasesTheKeyWhenTheTransactionRollsBack() {
+        NotificationCoalescer coalescer = new NotificationCoalescer(List.of("space_available"), 60_000, 6);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isTrue();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(coalescer.tryAccept("u1", SPACE_AVAILABLE, "A-1")).isTrue();
+    }
+
+    @Test
+    void acceptsExactlyOneOfManyConcurrentDuplicates() throws Exception {
+        NotificationCoalescer coalescer = new NotificationCoalescer(List.of("space_available"), 60_000, 6);
+        AtomicInteger accepted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 16; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int key = 0; key < 500; key++) {
+                    if (coalescer.tryAccept("u1", SPACE_AVAILABLE, "k" + key)) accepted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(500);
+        assertThat(coalescer.getSuppressed()).isEqualTo(15 * 500);
+    }
+
+    @Test
+    void prefersTheExplicitDedupKey() {
+        assertThat(NotificationCoalescer.dedupKey(Map.of(NotificationCoalescer.DEDUP_KEY, "space:A-1"), "t", "m"))
+                .isEqualTo("space:A-1");
+        assertThat(NotificationCoalescer.dedupKey(Map.of(), "Espacio libre", "A-1"))
+                .isEqualTo(NotificationCoalescer.dedupKey(Map.of(), "Espacio libre", "A-1"))
+                .isNotEqualTo(NotificationCoalescer.dedupKey(Map.of(), "Espacio libre", "A-2"));
+    }
+}
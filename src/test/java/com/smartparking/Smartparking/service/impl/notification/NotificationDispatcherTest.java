@@ -0,0 +1,199 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationQueue;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.service.notification.NotificationChannelSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private static final NotificationQueue.Priority URGENT = NotificationQueue.Priority.urgent;
+    private static final NotificationQueue.Priority HIGH = NotificationQueue.Priority.high;
+    private static final NotificationQueue.Priority MEDIUM = NotificationQueue.Priority.medium;
+    private static final NotificationQueue.Priority LOW = NotificationQueue.Priority.low;
+
+    // Sender in_app que bloquea hasta que el test lo libera y cuenta los envíos simultáneos
+    private static final class BlockingSender implements NotificationChannelSender {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public boolean supports(Notification.Channel channel) {
+            return channel == Notification.Channel.in_app;
+        }
+
+        @Override
+        public void send(ClaimedNotification notification) throws Exception {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } finally {
+                inFlight.decrementAndGet();
+                sent.incrementAndGet();
+            }
+        }
+    }
+
+    private final NotificationQueueJdbcRepository queueRepository = mock(NotificationQueueJdbcRepository.class);
+    private final NotificationMetrics metrics = mock(NotificationMetrics.class);
+    private final NotificationLogAppender logAppender = mock(NotificationLogAppender.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final BlockingSender sender = new BlockingSender();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sender.release.countDown();
+        if (dispatcher != null) dispatcher.shutdown();
+    }
+
+    @Test
+    void splitsTheBatchByLaneWeightAndCarriesUnusedQuotaDown() {
+        dispatcher = newDispatcher(Map.of("urgent", 100, "high", 100, "medium", 100, "low", 100), 30, 5);
+        sender.release.countDown();
+        when(queueRepository.claimBatch(eq(URGENT), anyInt(), any(), any())).thenAnswer(i -> claims(URGENT, 16, 0));
+        when(queueRepository.claimBatch(eq(HIGH), anyInt(), any(), any())).thenReturn(List.of());
+        when(queueRepository.claimBatch(eq(MEDIUM), anyInt(), any(), any())).thenReturn(List.of());
+        when(queueRepository.claimBatch(eq(LOW), anyInt(), any(), any())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        // 30 * 8/15 = 16, 30 * 4/15 = 8, 30 * 2/15 = 4, 30 * 1/15 = 2; lo que high no usa pasa a medium, etc.
+        verify(queueRepository).claimBatch(eq(URGENT), eq(16), any(), any());
+        verify(queueRepository).claimBatch(eq(HIGH), eq(8), any(), any());
+        verify(queueRepository).claimBatch(eq(MEDIUM), eq(12), any(), any());
+        verify(queueRepository).claimBatch(eq(LOW), eq(14), any(), any());
+    }
+
+    @Test
+    void neverClaimsMoreThanTheLaneConcurrencyLimit() throws Exception {
+        dispatcher = newDispatcher(Map.of("urgent", 2, "high", 1, "medium", 1, "low", 1), 30, 5);
+        when(queueRepository.claimBatch(eq(URGENT), anyInt(), any(), any()))
+                .thenAnswer(i -> claims(URGENT, i.getArgument(1), 0));
+
+        dispatcher.dispatch();
+        waitFor(() -> sender.inFlight.get() == 2);
+        dispatcher.dispatch();
+
+        // Con los dos envíos bloqueados el carril está lleno y no vuelve a reclamar
+        verify(queueRepository, times(1)).claimBatch(eq(URGENT), eq(2), any(), any());
+        verify(queueRepository, never()).claimBatch(eq(URGENT), eq(1), any(), any());
+
+        sender.release.countDown();
+        waitFor(() -> sender.sent.get() == 2);
+        assertThat(sender.maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void aSlowLowLaneDoesNotBlockTheUrgentLane() throws Exception {
+        dispatcher = newDispatcher(Map.of("urgent", 2, "high", 1, "medium", 1, "low", 1), 30, 5);
+        when(queueRepository.claimBatch(eq(LOW), anyInt(), any(), any()))
+                .thenAnswer(i -> claims(LOW, i.getArgument(1), 0));
+        dispatcher.dispatch();
+        waitFor(() -> sender.inFlight.get() == 1);
+
+        when(queueRepository.claimBatch(eq(URGENT), anyInt(), any(), any()))
+                .thenAnswer(i -> claims(URGENT, i.getArgument(1), 0));
+        dispatcher.dispatch();
+
+        waitFor(() -> sender.inFlight.get() == 3);
+        assertThat(sender.maxInFlight.get()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesOutcomesWhoseUpdateFailedWithoutLosingOrDuplicatingThem() throws Exception {
+        dispatcher = newDispatcher(Map.of("urgent", 4, "high", 1, "medium", 1, "low", 1), 30, 5);
+        sender.release.countDown();
+        List<ClaimedNotification> batch = claims(URGENT, 3, 0);
+        when(queueRepository.claimBatch(eq(URGENT), anyInt(), any(), any())).thenReturn(batch).thenReturn(List.of());
+        List<String> persisted = new ArrayList<>();
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(i -> {
+            // El primer UPDATE falla: esos resultados deben volver a la cola en memoria
+            if (attempts.getAndIncrement() == 0) throw new IllegalStateException("conexión perdida");
+            persisted.addAll(i.getArgument(0));
+            return null;
+        }).when(queueRepository).markCompleted(anyList(), anyList(), any());
+
+        dispatcher.dispatch();
+        waitFor(() -> {
+            dispatcher.dispatch();
+            return persisted.size() == 3;
+        });
+
+        assertThat(attempts.get()).isGreaterThanOrEqualTo(2);
+        assertThat(persisted).containsExactlyInAnyOrderElementsOf(batch.stream().map(ClaimedNotification::queueId).toList());
+        verify(metrics, times(3)).record(any(), any(), eq(NotificationMetrics.Outcome.sent));
+    }
+
+    @Test
+    void failsRowsWhoseLeaseExpiredTooManyTimesWithoutSendingThem() {
+        dispatcher = newDispatcher(Map.of("urgent", 4, "high", 1, "medium", 1, "low", 1), 30, 5);
+        when(queueRepository.claimBatch(eq(URGENT), anyInt(), any(), any()))
+                .thenReturn(claims(URGENT, 1, 6))
+                .thenReturn(List.of());
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        assertThat(sender.sent.get()).isZero();
+        verify(queueRepository).markFailed(argThat(ids -> ids.size() == 1), anyList(),
+                argThat(counts -> counts.equals(List.of(7))), anyList(), any());
+    }
+
+    private NotificationDispatcher newDispatcher(Map<String, Integer> concurrency, int batchSize, int maxRetries) {
+        NotificationLaneStats laneStats = new NotificationLaneStats(
+                Map.of("urgent", 8, "high", 4, "medium", 2, "low", 1),
+                concurrency,
+                Map.of());
+        return new NotificationDispatcher(queueRepository, List.of(sender), metrics, logAppender, laneStats,
+                transactionTemplate, batchSize, 1, maxRetries, 1000, 60_000, 120_000, 30_000);
+    }
+
+    private static List<ClaimedNotification> claims(NotificationQueue.Priority priority, int count, int retryCount) {
+        List<ClaimedNotification> claimed = new ArrayList<>(count);
+        IntStream.range(0, count).forEach(i -> claimed.add(new ClaimedNotification(
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), retryCount, "u" + i,
+                "Aviso", "Mensaje", Notification.Type.system_alert, Notification.Channel.in_app,
+                priority, LocalDateTime.now(), LocalDateTime.now())));
+        return claimed;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condición no alcanzada a tiempo").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
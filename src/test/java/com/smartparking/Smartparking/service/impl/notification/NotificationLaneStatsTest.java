@@ -0,0 +1,95 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.dto.response.notification.NotificationLaneStatsResponse;
+import com.smartparking.Smartparking.entity.notification.NotificationQueue;
+import com.smartparking.Smartparking.service.impl.notification.NotificationLaneStats.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationLaneStatsTest {
+
+    private final NotificationLaneStats stats = new NotificationLaneStats(
+            Map.of("urgent", 8, "high", 4, "medium", 2, "low", 1),
+            Map.of("urgent", 4, "high", 4, "medium", 4, "low", 2),
+            Map.of("urgent", 5_000L, "high", 30_000L, "medium", 120_000L, "low", 600_000L));
+
+    @Test
+    void ordersLanesFromHighestToLowestPriority() {
+        assertThat(stats.lanes()).extracting(Lane::priority).containsExactly(
+                NotificationQueue.Priority.urgent, NotificationQueue.Priority.high,
+                NotificationQueue.Priority.medium, NotificationQueue.Priority.low);
+        assertThat(stats.totalConcurrency()).isEqualTo(14);
+    }
+
+    @Test
+    void reserveGrantsOnlyWhatFitsUnderTheConcurrencyLimit() {
+        Lane low = stats.lane(NotificationQueue.Priority.low);
+
+        assertThat(stats.reserve(low, 5)).isEqualTo(2);
+        assertThat(stats.reserve(low, 1)).isZero();
+
+        stats.release(low, 1);
+        assertThat(stats.reserve(low, 5)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheLimit() throws Exception {
+        Lane lane = stats.lane(NotificationQueue.Priority.urgent);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < 10_000; n++) {
+                    int granted = stats.reserve(lane, 2);
+                    if (granted == 0) continue;
+                    maxSeen.accumulateAndGet(inFlight.addAndGet(granted), Math::max);
+                    inFlight.addAndGet(-granted);
+                    stats.release(lane, granted);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(maxSeen.get()).isLessThanOrEqualTo(lane.concurrencyLimit());
+        assertThat(stats.reserve(lane, 100)).isEqualTo(lane.concurrencyLimit());
+    }
+
+    @Test
+    void snapshotReportsSloAttainmentAndLatency() {
+        Lane urgent = stats.lane(NotificationQueue.Priority.urgent);
+        stats.claimed(urgent, 5);
+        stats.completed(urgent, 100, true);
+        stats.completed(urgent, 1_000, true);
+        stats.completed(urgent, 4_000, true);
+        stats.completed(urgent, 20_000, true);
+        stats.completed(urgent, 0, false);
+
+        NotificationLaneStatsResponse snapshot = stats.snapshot().get(0);
+        assertThat(snapshot.getPriority()).isEqualTo("urgent");
+        assertThat(snapshot.getClaimed()).isEqualTo(5);
+        assertThat(snapshot.getSent()).isEqualTo(4);
+        assertThat(snapshot.getFailed()).isEqualTo(1);
+        assertThat(snapshot.getSloAttainment()).isEqualTo(0.75);
+        assertThat(snapshot.getAvgLatencyMs()).isEqualTo(6_275.0);
+        assertThat(snapshot.getP95LatencyMs()).isEqualTo(30_000);
+        assertThat(snapshot.getMaxLatencyMs()).isEqualTo(20_000);
+    }
+}
@@ -0,0 +1,79 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationMetric;
+import com.smartparking.Smartparking.repository.notification.NotificationMetricJdbcRepository;
+import com.smartparking.Smartparking.repository.notification.NotificationMetricJdbcRepository.MetricRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class NotificationMetricsTest {
+
+    private final NotificationMetricJdbcRepository repository = mock(NotificationMetricJdbcRepository.class);
+    private final List<MetricRow> written = Collections.synchronizedList(new ArrayList<>());
+    private final NotificationMetrics metrics = new NotificationMetrics(repository);
+
+    @Test
+    void concurrentRecordsAreNeitherLostNorWrittenTwice() throws Exception {
+        capture();
+        ExecutorService pool = Executors.newFixedThreadPool(9);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch recorders = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                await(start);
+                for (int n = 0; n < 50_000; n++) {
+                    metrics.record(Notification.Type.system_alert, Notification.Channel.push, NotificationMetrics.Outcome.sent);
+                }
+                recorders.countDown();
+            });
+        }
+        // Flushes continuos mientras se registra: ningún delta puede caer en un contador ya retirado
+        pool.execute(() -> {
+            await(start);
+            while (recorders.getCount() > 0) metrics.flush();
+        });
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        metrics.flushOnShutdown();
+
+        assertThat(sum(NotificationMetric.TimePeriod.minute)).isEqualTo(400_000);
+        assertThat(sum(NotificationMetric.TimePeriod.hour)).isEqualTo(400_000);
+        assertThat(sum(NotificationMetric.TimePeriod.day)).isEqualTo(400_000);
+        assertThat(written.stream().filter(r -> r.period() == NotificationMetric.TimePeriod.minute)
+                .map(MetricRow::recordedAt)).doesNotHaveDuplicates();
+        assertThat(metrics.snapshot().getTotalsByOutcome()).containsEntry("sent", 400_000L);
+    }
+
+    private void capture() {
+        doAnswer(i -> {
+            written.addAll(i.getArgument(0));
+            return null;
+        }).when(repository).insertBatch(anyList());
+    }
+
+    private long sum(NotificationMetric.TimePeriod period) {
+        return written.stream().filter(r -> r.period() == period).mapToLong(MetricRow::value).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.smartparking.Smartparking.service.impl.notification;
+
+import com.smartparking.Smartparking.entity.notification.Notification;
+import com.smartparking.Smartparking.entity.notification.NotificationQueue;
+import com.smartparking.Smartparking.entity.notification.UserDeviceToken;
+import com.smartparking.Smartparking.repository.notification.NotificationQueueJdbcRepository.ClaimedNotification;
+import com.smartparking.Smartparking.repository.notification.UserDeviceTokenRepository;
+import com.smartparking.Smartparking.service.notification.PushProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PushDeliveryStageTest {
+
+    // StubPushProvider que además registra cada llamada multicast
+    private static final class RecordingStubProvider extends StubPushProvider {
+        final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingStubProvider(int multicastLimit) {
+            super(multicastLimit);
+        }
+
+        @Override
+        public MulticastResult sendMulticast(PushMessage message, List<String> tokens) {
+            calls.add(List.copyOf(tokens));
+            return super.sendMulticast(message, tokens);
+        }
+    }
+
+    private final UserDeviceTokenRepository tokenRepository = mock(UserDeviceTokenRepository.class);
+    private final Map<String, List<String>> tokensByUser = new HashMap<>();
+    private PushDeliveryStage stage;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (stage != null) stage.shutdown();
+    }
+
+    @Test
+    void groupsNotificationsWithTheSamePayloadIntoOneMulticast() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(500);
+        stage = newStage(provider, 1000, 20000);
+        tokensByUser.put("u1", List.of("t1"));
+        tokensByUser.put("u2", List.of("t2"));
+        tokensByUser.put("u3", List.of("t3"));
+        tokensByUser.put("u4", List.of("t4"));
+
+        List<CompletableFuture<String>> results = List.of(
+                offer("u1", "Espacio libre", "A-1 está libre"),
+                offer("u2", "Espacio libre", "A-1 está libre"),
+                offer("u3", "Espacio libre", "A-1 está libre"),
+                offer("u4", "Mantenimiento", "Cierre a las 22:00"));
+        stage.start();
+
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isNull();
+        }
+        assertThat(provider.calls).hasSize(2);
+        assertThat(provider.calls).containsExactlyInAnyOrder(List.of("t1", "t2", "t3"), List.of("t4"));
+    }
+
+    @Test
+    void splitsTokensIntoChunksOfTheProviderMulticastLimit() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(2);
+        stage = newStage(provider, 1000, 20000);
+        tokensByUser.put("u1", List.of("t1", "t2", "t3", "t4", "t5"));
+
+        CompletableFuture<String> result = offer("u1", "Aviso", "Mensaje");
+        stage.start();
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(provider.calls).extracting(List::size).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deactivatesInvalidTokensInASingleBulkUpdate() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(500);
+        stage = newStage(provider, 1000, 20000);
+        tokensByUser.put("u1", List.of("invalid-a", "ok-1"));
+        tokensByUser.put("u2", List.of("invalid-b"));
+
+        CompletableFuture<String> partial = offer("u1", "Aviso", "Mensaje");
+        CompletableFuture<String> rejected = offer("u2", "Aviso", "Mensaje");
+        stage.start();
+
+        assertThat(partial.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(rejected.get(5, TimeUnit.SECONDS)).isEqualTo("Token push inválido");
+
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        // La desactivación ocurre tras confirmar las entregas del lote
+        verify(tokenRepository, timeout(2000).times(1)).deactivateTokens(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder("invalid-a", "invalid-b");
+    }
+
+    @Test
+    void throttlesMulticastsWithTheProviderTokenBucket() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(5);
+        stage = newStage(provider, 10, 20000);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tokensByUser.put("u" + i, List.of("t" + i));
+            results.add(offer("u" + i, "Aviso", "Mensaje"));
+        }
+
+        long started = System.nanoTime();
+        stage.start();
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isNull();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 10 tokens salen con la ráfaga inicial; los otros 10 necesitan ~1 s a 10 tokens/s
+        assertThat(provider.calls).hasSize(4);
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(800);
+    }
+
+    @Test
+    void fallsBackToTheInboxWhenTheUserHasNoActiveDevices() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(500);
+        stage = newStage(provider, 1000, 20000);
+
+        CompletableFuture<String> result = offer("sin-dispositivos", "Aviso", "Mensaje");
+        stage.start();
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(provider.calls).isEmpty();
+        verify(tokenRepository, never()).deactivateTokens(anyCollection());
+    }
+
+    @Test
+    void expiresItemsThatWaitedLongerThanTheStageDeadline() throws Exception {
+        RecordingStubProvider provider = new RecordingStubProvider(500);
+        stage = newStage(provider, 1000, 1);
+        tokensByUser.put("u1", List.of("t1"));
+
+        CompletableFuture<String> result = offer("u1", "Aviso", "Mensaje");
+        Thread.sleep(20);
+        stage.start();
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Tiempo de espera en la etapa push agotado");
+        assertThat(provider.calls).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private PushDeliveryStage newStage(PushProvider provider, double ratePerSecond, long maxQueueMs) {
+        ObjectProvider<PushProvider> providers = mock(ObjectProvider.class);
+        when(providers.orderedStream()).thenAnswer(i -> Stream.of(provider));
+        when(tokenRepository.findActiveTokens(any())).thenAnswer(i -> {
+            Collection<String> userIds = i.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            for (String userId : userIds) {
+                for (String token : tokensByUser.getOrDefault(userId, List.of())) {
+                    rows.add(new Object[]{userId, token, UserDeviceToken.Platform.android});
+                }
+            }
+            return rows;
+        });
+        return new PushDeliveryStage(tokenRepository, providers, Map.of(provider.name(), ratePerSecond),
+                ratePerSecond, 1000, 1000, 50, maxQueueMs, 30000);
+    }
+
+    private CompletableFuture<String> offer(String userId, String title, String message) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        ClaimedNotification notification = new ClaimedNotification(
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), 0, userId, title, message,
+                Notification.Type.system_alert, Notification.Channel.push,
+                NotificationQueue.Priority.medium, LocalDateTime.now(), LocalDateTime.now());
+        assertThat(stage.offer(notification, result::complete)).isTrue();
+        return result;
+    }
+}
@@ -0,0 +1,156 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandFrameResponse;
+import com.smartparking.Smartparking.dto.response.space_iot.LedCommandResponse;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.entity.space_iot.SpaceLedStatus;
+import com.smartparking.Smartparking.event.space_iot.SensorAssignedEvent;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import com.smartparking.Smartparking.repository.space_iot.SpaceLedStatusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedCommandServiceImplTest {
+
+    private static final ParkingSpace.SpaceStatus AVAILABLE = ParkingSpace.SpaceStatus.available;
+    private static final ParkingSpace.SpaceStatus OCCUPIED = ParkingSpace.SpaceStatus.occupied;
+
+    private final ParkingSpaceRepository parkingSpaceRepository = mock(ParkingSpaceRepository.class);
+    private final SensorRepository sensorRepository = mock(SensorRepository.class);
+    private final SpaceLedStatusRepository ledStatusRepository = mock(SpaceLedStatusRepository.class);
+    private final LedCommandServiceImpl service =
+            new LedCommandServiceImpl(parkingSpaceRepository, sensorRepository, ledStatusRepository);
+
+    @Test
+    void doesNotResendTheAcknowledgedColour() {
+        start(Map.of("s1", "d1"), space("s1", AVAILABLE));
+
+        service.flush();
+        service.onSpaceStatusChanged(event("s1", AVAILABLE, AVAILABLE));
+        service.flush();
+
+        assertThat(service.getPendingFrame("d1")).isEmpty();
+    }
+
+    @Test
+    void sendsChangedColoursGroupedByDeviceAndPersistsTheAck() {
+        start(Map.of("s1", "d1", "s2", "d1", "s3", "d2"),
+                space("s1", AVAILABLE), space("s2", AVAILABLE), space("s3", AVAILABLE));
+        service.flush();
+
+        service.onSpaceStatusChanged(event("s1", AVAILABLE, OCCUPIED));
+        service.onSpaceStatusChanged(event("s2", AVAILABLE, OCCUPIED));
+        service.onSpaceStatusChanged(event("s3", AVAILABLE, OCCUPIED));
+        service.flush();
+
+        LedCommandFrameResponse frame = service.getPendingFrame("d1").orElseThrow();
+        assertThat(colours(frame)).containsExactlyInAnyOrderEntriesOf(Map.of("s1", "red", "s2", "red"));
+        assertThat(colours(service.getPendingFrame("d2").orElseThrow())).containsExactlyEntriesOf(Map.of("s3", "red"));
+
+        service.acknowledgeFrame("d1", frame.getFrameId());
+        assertThat(service.getPendingFrame("d1")).isEmpty();
+        verify(ledStatusRepository).saveAll(anyList());
+
+        // Ya confirmado: repetir el estado no genera otro frame
+        service.onSpaceStatusChanged(event("s1", OCCUPIED, OCCUPIED));
+        service.flush();
+        assertThat(service.getPendingFrame("d1")).isEmpty();
+    }
+
+    @Test
+    void overridesAStaleUnacknowledgedCommandWhenTheSpaceReturnsToItsAckedColour() {
+        start(Map.of("s1", "d1"), space("s1", AVAILABLE));
+        service.flush();
+
+        service.onSpaceStatusChanged(event("s1", AVAILABLE, OCCUPIED));
+        service.flush();
+        LedCommandFrameResponse stale = service.getPendingFrame("d1").orElseThrow();
+        assertThat(colours(stale)).containsEntry("s1", "red");
+
+        service.onSpaceStatusChanged(event("s1", OCCUPIED, AVAILABLE));
+        service.flush();
+
+        LedCommandFrameResponse current = service.getPendingFrame("d1").orElseThrow();
+        assertThat(current.getFrameId()).isNotEqualTo(stale.getFrameId());
+        assertThat(colours(current)).containsExactlyEntriesOf(Map.of("s1", "green"));
+        assertThatThrownBy(() -> service.acknowledgeFrame("d1", stale.getFrameId()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void deliversCommandsForSpacesOnceASensorIsAssigned() {
+        start(Map.of(), space("s1", AVAILABLE));
+        service.onSpaceStatusChanged(event("s1", AVAILABLE, OCCUPIED));
+        service.flush();
+        assertThat(service.getPendingFrame("d9")).isEmpty();
+
+        service.onSensorAssigned(new SensorAssignedEvent("sensor-1", "s1", "d9"));
+        service.flush();
+
+        assertThat(colours(service.getPendingFrame("d9").orElseThrow())).containsExactlyEntriesOf(Map.of("s1", "red"));
+    }
+
+    @Test
+    void reassigningTheSameDeviceDoesNotResendCommands() {
+        start(Map.of("s1", "d1"), space("s1", AVAILABLE));
+        service.onSpaceStatusChanged(event("s1", AVAILABLE, OCCUPIED));
+        service.flush();
+        LedCommandFrameResponse frame = service.getPendingFrame("d1").orElseThrow();
+        service.acknowledgeFrame("d1", frame.getFrameId());
+
+        service.onSensorAssigned(new SensorAssignedEvent("sensor-2", "s1", "d1"));
+        service.flush();
+        assertThat(service.getPendingFrame("d1")).isEmpty();
+
+        // Otro controlador no tiene el color: se le envía
+        service.onSensorAssigned(new SensorAssignedEvent("sensor-3", "s1", "d2"));
+        service.flush();
+        assertThat(service.getPendingFrame("d2")).isPresent();
+    }
+
+    private void start(Map<String, String> devices, Object[]... spaces) {
+        List<Object[]> acked = new ArrayList<>();
+        for (Object[] space : spaces) acked.add(new Object[]{space[0], SpaceLedStatus.LedColor.green});
+        List<Object[]> assignments = new ArrayList<>();
+        devices.forEach((spaceId, deviceId) -> assignments.add(new Object[]{spaceId, deviceId}));
+
+        when(ledStatusRepository.findAllColors()).thenReturn(acked);
+        when(sensorRepository.findSpaceDeviceAssignments()).thenReturn(assignments);
+        when(parkingSpaceRepository.findSpaceReservationStates()).thenReturn(List.of(spaces));
+        service.initialize();
+    }
+
+    private static Object[] space(String spaceId, ParkingSpace.SpaceStatus status) {
+        return new Object[]{spaceId, spaceId.toUpperCase(), status, null};
+    }
+
+    private static SpaceStatusChangedEvent event(String spaceId, ParkingSpace.SpaceStatus previous,
+                                                 ParkingSpace.SpaceStatus status) {
+        return new SpaceStatusChangedEvent(spaceId, spaceId.toUpperCase(), "A", 1, "A", 1,
+                previous, status, null, null, LocalDateTime.now());
+    }
+
+    private static Map<String, String> colours(LedCommandFrameResponse frame) {
+        Map<String, String> colours = new LinkedHashMap<>();
+        for (LedCommandResponse command : frame.getCommands()) colours.put(command.getSpaceId(), command.getColor());
+        return colours;
+    }
+}
@@ -0,0 +1,163 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.LotSummaryResponse;
+import com.smartparking.Smartparking.dto.response.space_iot.ZoneOccupancyResponse;
+import com.smartparking.Smartparking.entity.space_iot.ParkingSpace;
+import com.smartparking.Smartparking.event.space_iot.SpaceStatusChangedEvent;
+import com.smartparking.Smartparking.repository.space_iot.ParkingSpaceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LotOccupancyServiceImplTest {
+
+    private static final ParkingSpace.SpaceStatus AVAILABLE = ParkingSpace.SpaceStatus.available;
+    private static final ParkingSpace.SpaceStatus OCCUPIED = ParkingSpace.SpaceStatus.occupied;
+
+    private final ParkingSpaceRepository repository = mock(ParkingSpaceRepository.class);
+    private final LotOccupancyServiceImpl service = new LotOccupancyServiceImpl(repository);
+
+    @Test
+    void countsTransitionsByZoneAndStatus() {
+        snapshot(row("s1", 1, "A", AVAILABLE), row("s2", 1, "A", AVAILABLE), row("s3", 2, "B", AVAILABLE));
+        service.reconcile();
+
+        service.onSpaceStatusChanged(event("s1", 1, "A", AVAILABLE, OCCUPIED));
+        service.onSpaceStatusChanged(event("s3", 2, "B", AVAILABLE, OCCUPIED));
+
+        LotSummaryResponse summary = service.getSummary();
+        assertThat(summary.getAvailable()).isEqualTo(1);
+        assertThat(summary.getOccupied()).isEqualTo(2);
+        assertThat(summary.getTotal()).isEqualTo(3);
+        assertThat(zone(summary, 1, "A").getOccupied()).isEqualTo(1);
+        assertThat(zone(summary, 2, "B").getOccupied()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEventsThatArriveWhileTheSnapshotIsBeingRead() {
+        snapshot(row("s1", 1, "A", AVAILABLE), row("s2", 1, "A", AVAILABLE));
+        service.reconcile();
+
+        // La foto (s1 libre) se tomó antes de que el evento de ocupación se aplicara
+        when(repository.findOccupancyStates()).thenAnswer(i -> {
+            service.onSpaceStatusChanged(event("s1", 1, "A", AVAILABLE, OCCUPIED));
+            return rows(row("s1", 1, "A", AVAILABLE), row("s2", 1, "A", AVAILABLE));
+        });
+        service.reconcile();
+
+        LotSummaryResponse summary = service.getSummary();
+        assertThat(summary.getOccupied()).isEqualTo(1);
+        assertThat(summary.getAvailable()).isEqualTo(1);
+        assertThat(summary.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotDoubleCountAnEventAlreadyVisibleInTheSnapshot() {
+        snapshot(row("s1", 1, "A", AVAILABLE));
+        service.reconcile();
+
+        // Confirmado antes de la foto pero entregado al listener durante la consulta
+        when(repository.findOccupancyStates()).thenAnswer(i -> {
+            service.onSpaceStatusChanged(event("s1", 1, "A", AVAILABLE, OCCUPIED));
+            return rows(row("s1", 1, "A", OCCUPIED));
+        });
+        service.reconcile();
+
+        LotSummaryResponse summary = service.getSummary();
+        assertThat(summary.getOccupied()).isEqualTo(1);
+        assertThat(summary.getAvailable()).isZero();
+        assertThat(summary.getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void removesDeletedSpacesFromTheirZone() {
+        snapshot(row("s1", 1, "A", AVAILABLE), row("s2", 1, "A", OCCUPIED));
+        service.reconcile();
+
+        snapshot(row("s1", 1, "A", AVAILABLE));
+        service.reconcile();
+
+        LotSummaryResponse summary = service.getSummary();
+        assertThat(summary.getTotal()).isEqualTo(1);
+        assertThat(summary.getOccupied()).isZero();
+    }
+
+    @Test
+    void movesSpacesBetweenZones() {
+        snapshot(row("s1", 1, "A", AVAILABLE));
+        service.reconcile();
+
+        service.onSpaceStatusChanged(event("s1", 2, "B", AVAILABLE, AVAILABLE));
+
+        LotSummaryResponse summary = service.getSummary();
+        assertThat(summary.getZones()).extracting(ZoneOccupancyResponse::getZone).containsExactly("B");
+        assertThat(summary.getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentTransitionsKeepTheTotalConstant() throws Exception {
+        List<Object[]> initial = new ArrayList<>();
+        for (int i = 0; i < 200; i++) initial.add(row("s" + i, 1, "A", AVAILABLE));
+        when(repository.findOccupancyStates()).thenReturn(initial);
+        service.reconcile();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < 1000; n++) {
+                    String spaceId = "s" + ((n * 8 + offset) % 200);
+                    ParkingSpace.SpaceStatus status = n % 2 == 0 ? OCCUPIED : AVAILABLE;
+                    service.onSpaceStatusChanged(event(spaceId, 1, "A", null, status));
+                    if (n % 250 == 0) service.reconcile();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(service.getSummary().getTotal()).isEqualTo(200);
+    }
+
+    private void snapshot(Object[]... rows) {
+        when(repository.findOccupancyStates()).thenReturn(rows(rows));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    private static Object[] row(String spaceId, Integer level, String zone, ParkingSpace.SpaceStatus status) {
+        return new Object[]{spaceId, level, zone, status};
+    }
+
+    private static SpaceStatusChangedEvent event(String spaceId, Integer level, String zone,
+                                                 ParkingSpace.SpaceStatus previous, ParkingSpace.SpaceStatus status) {
+        return new SpaceStatusChangedEvent(spaceId, spaceId.toUpperCase(), zone, level, zone, level,
+                previous, status, null, null, LocalDateTime.now());
+    }
+
+    private static ZoneOccupancyResponse zone(LotSummaryResponse summary, Integer level, String zone) {
+        return summary.getZones().stream()
+                .filter(z -> level.equals(z.getLevel()) && zone.equals(z.getZone()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartparking.Smartparking.service.impl.space_iot;
+
+import com.smartparking.Smartparking.dto.response.space_iot.SensorHealthResponse;
+import com.smartparking.Smartparking.entity.space_iot.Sensor;
+import com.smartparking.Smartparking.repository.space_iot.SensorRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SensorHealthMonitorTest {
+
+    private static final double FLOOR_CM = 220.0;
+    private static final double VEHICLE_CM = 35.0;
+
+    private final SensorHealthMonitor monitor = new SensorHealthMonitor(
+            mock(SensorRepository.class), 16, 2, 400, 100, 30, 100, 0.1, 0.2, 0.01, 120);
+    private final Random random = new Random(42);
+    private long nanos;
+
+    @Test
+    void cleanArrivalsAndDeparturesStayHealthy() {
+        monitor.register(0, "s0", Sensor.SensorState.active);
+
+        // Tres transiciones por ventana de 100 lecturas, más un salto suelo→vehículo de ~300 cm
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 100; i++) {
+                double level = (i / 25) % 2 == 0 ? FLOOR_CM : VEHICLE_CM;
+                if (window == 4 && i >= 50) level = i < 75 ? 330.0 : 30.0;
+                assertThat(monitor.record(0, level + random.nextGaussian() * 1.5, tick())).isTrue();
+            }
+        }
+
+        SensorHealthResponse health = monitor.report().get(0);
+        assertThat(health.getStatus()).isEqualTo("healthy");
+        assertThat(health.getNoiseStddevCm()).isLessThan(5);
+    }
+
+    @Test
+    void flagsNoiseAroundASteadyLevel() {
+        monitor.register(0, "s0", Sensor.SensorState.active);
+
+        boolean healthy = true;
+        for (int i = 0; i < 100; i++) {
+            healthy = monitor.record(0, 150 + random.nextGaussian() * 40, tick());
+        }
+
+        assertThat(healthy).isFalse();
+        assertThat(monitor.report().get(0).getReasons()).containsExactly("noise");
+    }
+
+    @Test
+    void flagsASensorThatJumpsBetweenLevelsOnEveryReading() {
+        monitor.register(0, "s0", Sensor.SensorState.active);
+
+        boolean healthy = true;
+        for (int i = 0; i < 100; i++) {
+            healthy = monitor.record(0, i % 2 == 0 ? FLOOR_CM : VEHICLE_CM, tick());
+        }
+
+        assertThat(healthy).isFalse();
+        assertThat(monitor.report().get(0).getReasons()).containsExactly("noise");
+    }
+
+    @Test
+    void flagsOutOfRangeReadings() {
+        monitor.register(0, "s0", Sensor.SensorState.active);
+
+        boolean healthy = true;
+        for (int i = 0; i < 100; i++) {
+            healthy = monitor.record(0, i % 3 == 0 ? 999 : FLOOR_CM + random.nextGaussian(), tick());
+        }
+
+        assertThat(healthy).isFalse();
+        assertThat(monitor.report().get(0).getReasons()).containsExactly("out_of_range");
+    }
+
+    private long tick() {
+        return nanos += 1_000_000_000L;
+    }
+}